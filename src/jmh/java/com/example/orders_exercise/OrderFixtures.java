@@ -0,0 +1,41 @@
+package com.example.orders_exercise;
+
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.entity.Order;
+import com.example.orders_exercise.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderFixtures {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123_000_000);
+
+    private OrderFixtures() {
+    }
+
+    public static Order order(long id) {
+        OrderStatus status = OrderStatus.values()[(int) (id % OrderStatus.values().length)];
+        return new Order(id, CREATED_AT.plusSeconds(id), status, id % 1000, "Benchmark order number " + id, null);
+    }
+
+    public static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            orders.add(order(id));
+        }
+        return orders;
+    }
+
+    public static OrderDto orderDto(long id) {
+        Order order = order(id);
+        return new OrderDto(order.getId(), order.getCreatedAt(), order.getStatus(), order.getUserId(), order.getDescription());
+    }
+
+    public static OrderEvent orderEvent(long id) {
+        Order order = order(id);
+        return new OrderEvent(order.getId(), order.getCreatedAt(), order.getStatus(), order.getUserId(), order.getDescription());
+    }
+}
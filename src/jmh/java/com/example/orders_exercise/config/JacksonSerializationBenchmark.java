@@ -0,0 +1,55 @@
+package com.example.orders_exercise.config;
+
+import com.example.orders_exercise.OrderFixtures;
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JacksonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private OrderDto orderDto;
+    private OrderEvent orderEvent;
+    private List<OrderDto> orderDtos;
+    private byte[] orderEventJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new JacksonConfig().objectMapper();
+        orderDto = OrderFixtures.orderDto(42);
+        orderEvent = OrderFixtures.orderEvent(42);
+        orderDtos = OrderFixtures.orders(1000).stream()
+                .map(order -> OrderFixtures.orderDto(order.getId()))
+                .toList();
+        orderEventJson = objectMapper.writeValueAsBytes(orderEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderDto);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderDtos);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderEvent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orderEvent);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeOrderEvent() throws IOException {
+        return objectMapper.readValue(orderEventJson, OrderEvent.class);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.orders_exercise.controller;
+
+import com.example.orders_exercise.OrderFixtures;
+import com.example.orders_exercise.config.JacksonConfig;
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.entity.Order;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private OrderController controller;
+    private List<Order> orders;
+
+    @Setup
+    public void setup() {
+        controller = new OrderController(null, null, null, null, new JacksonConfig().objectMapper());
+        orders = OrderFixtures.orders(size);
+    }
+
+    @Benchmark
+    public List<OrderDto> mapToDtoList() {
+        return orders.stream()
+                .map(controller::mapToDto)
+                .collect(Collectors.toList());
+    }
+}
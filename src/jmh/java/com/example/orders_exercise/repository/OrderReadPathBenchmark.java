@@ -0,0 +1,79 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.OrderFixtures;
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.entity.Order;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compare gc.alloc.rate.norm divided by rows to get the allocation per order read
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderReadPathBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:jmh-read;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.beginTransaction();
+            OrderFixtures.orders(rows).forEach(order -> {
+                order.setId(null);
+                session.insert(order);
+            });
+            session.getTransaction().commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<Order> managedEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            List<Order> orders = session.createQuery("from Order", Order.class).getResultList();
+            session.getTransaction().commit();
+            return orders;
+        }
+    }
+
+    @Benchmark
+    public List<Order> readOnlyEntities() {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.beginTransaction();
+            List<Order> orders = session.createQuery("from Order", Order.class).getResultList();
+            session.getTransaction().commit();
+            return orders;
+        }
+    }
+
+    @Benchmark
+    public List<OrderDto> dtoProjection() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            List<OrderDto> orders = new OrderDtoRepository(session).findAll(Order.class, null);
+            session.getTransaction().commit();
+            return orders;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.entity.Order;
+import com.example.orders_exercise.entity.OrderStatus;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderSpecificationBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 12, 31, 23, 59);
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Order.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:jmh")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "none")
+                .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate emptyFilter() {
+        return toPredicate(OrderSpecification.filterBy(null, null, null, null, null, null));
+    }
+
+    @Benchmark
+    public Predicate userAndStatusFilter() {
+        return toPredicate(OrderSpecification.filterBy(null, OrderStatus.NEW, 42L, null, null, null));
+    }
+
+    @Benchmark
+    public Predicate fullFilter() {
+        return toPredicate(OrderSpecification.filterBy(1L, OrderStatus.PROCESSING, 42L, "100% done", START, END));
+    }
+
+    private Predicate toPredicate(Specification<Order> specification) {
+        CriteriaQuery<Order> query = criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.OrderFixtures;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.OrderStatus;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KafkaSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    private String format;
+
+    private Serializer<Object> serializer;
+    private Deserializer<?> orderEventDeserializer;
+    private OrderEvent orderEvent;
+    private OrderStatusChangedEvent statusChangedEvent;
+    private byte[] encodedOrderEvent;
+    private RecordHeaders headers;
+
+    @Setup
+    public void setup() {
+        orderEvent = OrderFixtures.orderEvent(42);
+        statusChangedEvent = new OrderStatusChangedEvent(42L, OrderStatus.NEW, OrderStatus.PROCESSING, LocalDateTime.of(2025, 6, 1, 12, 0));
+        headers = new RecordHeaders();
+
+        if ("binary".equals(format)) {
+            serializer = new BinaryOrderEventSerializer();
+            orderEventDeserializer = new BinaryOrderEventDeserializer();
+        } else {
+            serializer = new JsonSerializer<>();
+            serializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+            orderEventDeserializer = new JsonDeserializer<>(OrderEvent.class, false);
+        }
+        encodedOrderEvent = serializer.serialize("order.created", headers, orderEvent);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        orderEventDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeOrderEvent() {
+        return serializer.serialize("order.created", orderEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeStatusChangedEvent() {
+        return serializer.serialize("order.status.changed", statusChangedEvent);
+    }
+
+    @Benchmark
+    public Object deserializeOrderEvent() {
+        return orderEventDeserializer.deserialize("order.created", headers, encodedOrderEvent);
+    }
+}
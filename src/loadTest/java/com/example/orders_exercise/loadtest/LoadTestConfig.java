@@ -0,0 +1,53 @@
+package com.example.orders_exercise.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record LoadTestConfig(Infrastructure infrastructure, boolean virtualThreads, Duration warmup, Duration duration,
+                             int seedOrders, int users, int maxInFlight, Map<String, Double> rates, Path reportDir) {
+
+    public enum Infrastructure {
+        /** H2 in memory and an embedded KRaft broker, nothing to install */
+        EMBEDDED,
+        /** PostgreSQL and Kafka in Testcontainers, closer to production */
+        CONTAINERS
+    }
+
+    static final String CREATE = "create";
+    static final String GET_BY_ID = "getById";
+    static final String SEARCH = "search";
+    static final String UPDATE_STATUS = "updateStatus";
+    static final String GET_FROM_KAFKA = "getFromKafka";
+
+    private static final Map<String, String> DEFAULT_RATES = Map.of(
+            CREATE, "50",
+            GET_BY_ID, "200",
+            SEARCH, "50",
+            UPDATE_STATUS, "20",
+            GET_FROM_KAFKA, "20"
+    );
+
+    public static LoadTestConfig fromSystemProperties() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (String endpoint : new String[]{CREATE, GET_BY_ID, SEARCH, UPDATE_STATUS, GET_FROM_KAFKA}) {
+            rates.put(endpoint, Double.parseDouble(property("rate." + endpoint, DEFAULT_RATES.get(endpoint))));
+        }
+        return new LoadTestConfig(
+                Infrastructure.valueOf(property("infra", "embedded").toUpperCase()),
+                Boolean.parseBoolean(property("virtualThreads", "false")),
+                Duration.ofSeconds(Long.parseLong(property("warmupSeconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(property("durationSeconds", "60"))),
+                Integer.parseInt(property("seedOrders", "10000")),
+                Integer.parseInt(property("users", "100")),
+                Integer.parseInt(property("maxInFlight", "1000")),
+                rates,
+                Path.of(property("reportDir", "build/reports/load-test"))
+        );
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.orders_exercise.loadtest;
+
+import com.example.orders_exercise.OrdersExerciseApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts the application on a random port against local stand-ins for PostgreSQL and Kafka,
+ * and tears everything down again in reverse order.
+ */
+final class LoadTestEnvironment implements AutoCloseable {
+
+    private static final int PARTITIONS = 3;
+
+    private final Deque<AutoCloseable> resources = new ArrayDeque<>();
+    private ConfigurableApplicationContext context;
+
+    static LoadTestEnvironment start(LoadTestConfig config) throws Exception {
+        LoadTestEnvironment environment = new LoadTestEnvironment();
+        try {
+            environment.startApplication(config);
+        } catch (Exception e) {
+            environment.close();
+            throw e;
+        }
+        return environment;
+    }
+
+    ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private void startApplication(LoadTestConfig config) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        // SQL logging alone would dominate the latencies being measured
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.jpa.properties.hibernate.format_sql", false);
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+
+        if (config.infrastructure() == LoadTestConfig.Infrastructure.CONTAINERS) {
+            PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+            postgres.start();
+            resources.push(postgres::stop);
+            KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.1"));
+            kafka.start();
+            resources.push(kafka::stop);
+
+            properties.put("spring.datasource.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+            properties.put("spring.datasource.username", postgres.getUsername());
+            properties.put("spring.datasource.password", postgres.getPassword());
+            properties.put("spring.kafka.bootstrap-servers", kafka.getBootstrapServers());
+        } else {
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS,
+                    "order.created", "order.status.changed", "order.deleted");
+            kafka.afterPropertiesSet();
+            resources.push(kafka::destroy);
+
+            properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            properties.put("spring.sql.init.mode", "never");
+            properties.put("spring.kafka.bootstrap-servers", kafka.getBrokersAsString());
+        }
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(OrdersExerciseApplication.class)
+                .properties(properties);
+        if (config.virtualThreads()) {
+            application.profiles("virtual-threads");
+        }
+        context = application.run();
+        resources.push(context::close);
+    }
+
+    @Override
+    public void close() {
+        while (!resources.isEmpty()) {
+            try {
+                resources.pop().close();
+            } catch (Exception e) {
+                System.err.println("Failed to stop load test resource: " + e.getMessage());
+            }
+        }
+    }
+}
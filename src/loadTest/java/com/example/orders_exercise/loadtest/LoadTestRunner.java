@@ -0,0 +1,87 @@
+package com.example.orders_exercise.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of {@code ./gradlew loadTest}. Starts the application, seeds orders, drives the
+ * mixed workload and writes a JSON report whose layout stays stable so runs can be diffed.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<ScenarioResult> results;
+        try (LoadTestEnvironment environment = LoadTestEnvironment.start(config)) {
+            ObjectMapper objectMapper = environment.context().getBean(ObjectMapper.class);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            OrderWorkload workload = new OrderWorkload(environment.baseUrl(), objectMapper, config.users());
+            System.out.printf("Seeding %d orders against %s%n", config.seedOrders(), environment.baseUrl());
+            workload.seed(client, config.seedOrders());
+
+            System.out.printf("Running %s warmup and %s measurement%n", config.warmup(), config.duration());
+            results = new OpenLoadDriver(client, config.maxInFlight())
+                    .run(workload.scenarios(config), config.warmup(), config.duration());
+        }
+        printSummary(results);
+        Path report = writeReport(config, startedAt, results);
+        System.out.println("Report written to " + report.toAbsolutePath());
+        System.exit(0);
+    }
+
+    private static Path writeReport(LoadTestConfig config, LocalDateTime startedAt, List<ScenarioResult> results) throws IOException {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("infrastructure", config.infrastructure().name().toLowerCase());
+        settings.put("virtualThreads", config.virtualThreads());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        settings.put("durationSeconds", config.duration().toSeconds());
+        settings.put("seedOrders", config.seedOrders());
+        settings.put("users", config.users());
+        settings.put("maxInFlight", config.maxInFlight());
+        settings.put("rates", config.rates());
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        results.forEach(result -> scenarios.put(result.name(), result.toReport()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("config", settings);
+        report.put("runtime", Reports.runtime());
+        report.put("scenarios", scenarios);
+        return Reports.write(config.reportDir(), "load-test", startedAt, report);
+    }
+
+    private static void printSummary(List<ScenarioResult> results) {
+        System.out.printf("%-36s %10s %10s %10s %10s %10s %8s%n", "scenario", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "non-2xx");
+        for (ScenarioResult result : results) {
+            long non2xx = result.failures() + result.statusCodes().entrySet().stream()
+                    .filter(entry -> entry.getKey() / 100 != 2)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            System.out.printf("%-36s %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    result.name(),
+                    result.throughput(),
+                    result.latencies().getValueAtPercentile(50) / 1000.0,
+                    result.latencies().getValueAtPercentile(99) / 1000.0,
+                    result.latencies().getValueAtPercentile(99.9) / 1000.0,
+                    result.latencies().getMaxValue() / 1000.0,
+                    non2xx);
+        }
+    }
+}
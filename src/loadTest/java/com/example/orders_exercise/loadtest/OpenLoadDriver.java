@@ -0,0 +1,132 @@
+package com.example.orders_exercise.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fires every scenario on its own fixed arrival schedule (an open model), so a slow server
+ * queues work instead of slowing the generator down. Latency is measured from the moment a
+ * request was due rather than when it was sent, which keeps coordinated omission out of the
+ * percentiles. Requests due during the warmup are sent but not recorded.
+ */
+final class OpenLoadDriver {
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    OpenLoadDriver(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    List<ScenarioResult> run(List<Scenario> scenarios, Duration warmup, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        List<Dispatcher> dispatchers = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            Dispatcher dispatcher = new Dispatcher(scenario, start, measureFrom, end);
+            dispatcher.thread.start();
+            dispatchers.add(dispatcher);
+        }
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Dispatcher dispatcher : dispatchers) {
+            dispatcher.thread.join();
+            dispatcher.awaitInFlight();
+            results.add(dispatcher.result(duration));
+        }
+        return results;
+    }
+
+    private final class Dispatcher {
+        private final Scenario scenario;
+        private final long start;
+        private final long measureFrom;
+        private final long end;
+        private final Thread thread;
+        private final Semaphore inFlight = new Semaphore(maxInFlight);
+        private final Recorder latencies = new Recorder(3);
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        private Dispatcher(Scenario scenario, long start, long measureFrom, long end) {
+            this.scenario = scenario;
+            this.start = start;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.thread = new Thread(this::dispatch, "load-" + scenario.name());
+            this.thread.setDaemon(true);
+        }
+
+        private void dispatch() {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / scenario.ratePerSecond());
+            for (long n = 0; ; n++) {
+                long due = start + n * interval;
+                if (due >= end) {
+                    return;
+                }
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = due >= measureFrom;
+                if (!inFlight.tryAcquire()) {
+                    if (measured) {
+                        skipped.increment();
+                    }
+                    continue;
+                }
+                if (measured) {
+                    sent.increment();
+                }
+                client.sendAsync(scenario.requests().get(), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long latencyNanos = System.nanoTime() - due;
+                            inFlight.release();
+                            if (!measured) {
+                                return;
+                            }
+                            if (error != null) {
+                                failures.increment();
+                                return;
+                            }
+                            statusCodes.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                            // Only successful responses go into the histogram, a fast 503 is not a fast answer
+                            if (response.statusCode() / 100 == 2) {
+                                latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+                            }
+                        });
+            }
+        }
+
+        private void awaitInFlight() throws InterruptedException {
+            if (inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+                inFlight.release(maxInFlight);
+            }
+        }
+
+        private ScenarioResult result(Duration duration) {
+            Histogram histogram = latencies.getIntervalHistogram();
+            Map<Integer, Long> codes = new TreeMap<>();
+            statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+            return new ScenarioResult(scenario.name(), scenario.ratePerSecond(), duration, sent.sum(),
+                    failures.sum(), skipped.sum(), codes, histogram);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.orders_exercise.loadtest;
+
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.OrderSearchRequest;
+import com.example.orders_exercise.dto.OrderStatusUpdateRequest;
+import com.example.orders_exercise.entity.OrderStatus;
+import com.example.orders_exercise.repository.OrderSpecification;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * The mixed order workload: creates, lookups by id, searches of several filter shapes,
+ * status updates and reads of the live Kafka view.
+ */
+final class OrderWorkload {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final int users;
+    private final List<Long> orderIds = new ArrayList<>();
+    private final Map<Long, OrderStatus> lastStatuses = new ConcurrentHashMap<>();
+
+    OrderWorkload(String baseUrl, ObjectMapper objectMapper, int users) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.users = users;
+    }
+
+    void seed(HttpClient client, int count) throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += SEED_BATCH_SIZE) {
+            List<OrderDto> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, count); i++) {
+                batch.add(new OrderDto(null, null, null, randomUser(), "Load test order " + i));
+            }
+            HttpResponse<String> response = client.send(post("/api/orders/batch", batch), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode order : objectMapper.readTree(response.body())) {
+                orderIds.add(order.get("id").asLong());
+            }
+        }
+    }
+
+    List<Scenario> scenarios(LoadTestConfig config) {
+        if (orderIds.isEmpty()) {
+            throw new IllegalStateException("Seed orders before building scenarios");
+        }
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario(LoadTestConfig.CREATE, config.rates().get(LoadTestConfig.CREATE),
+                () -> post("/api/orders", new OrderDto(null, null, null, randomUser(), "Load test order"))));
+        scenarios.add(new Scenario(LoadTestConfig.GET_BY_ID, config.rates().get(LoadTestConfig.GET_BY_ID),
+                () -> get("/api/orders/" + randomOrderId())));
+
+        // Each filter shape gets an equal share of the search rate and its own histogram
+        List<Function<LocalDateTime, OrderSearchRequest>> searches = List.of(
+                now -> new OrderSearchRequest(null, null, randomUser(), null, null, null),
+                now -> new OrderSearchRequest(null, OrderStatus.NEW, randomUser(), null, null, null),
+                now -> new OrderSearchRequest(null, null, null, "order " + ThreadLocalRandom.current().nextInt(1000), null, null),
+                now -> new OrderSearchRequest(null, null, null, null, now.minusMinutes(5), now),
+                now -> new OrderSearchRequest(randomOrderId(), null, null, null, null, null)
+        );
+        double searchRate = config.rates().get(LoadTestConfig.SEARCH) / searches.size();
+        for (Function<LocalDateTime, OrderSearchRequest> search : searches) {
+            OrderSearchRequest sample = search.apply(LocalDateTime.now());
+            String shape = OrderSpecification.filterShape(sample.id(), sample.status(), sample.userId(),
+                    sample.description(), sample.startDate(), sample.endDate());
+            scenarios.add(new Scenario(LoadTestConfig.SEARCH + "[" + shape + "]", searchRate,
+                    () -> post("/api/orders/search", search.apply(LocalDateTime.now()))));
+        }
+
+        // NEW and PROCESSING can move back and forth, so status updates never run out of valid transitions
+        scenarios.add(new Scenario(LoadTestConfig.UPDATE_STATUS, config.rates().get(LoadTestConfig.UPDATE_STATUS),
+                () -> {
+                    long orderId = randomOrderId();
+                    return request("/api/orders/" + orderId + "/status").method("PATCH", json(new OrderStatusUpdateRequest(
+                            nextStatus(orderId)
+                    ))).build();
+                }));
+        scenarios.add(new Scenario(LoadTestConfig.GET_FROM_KAFKA, config.rates().get(LoadTestConfig.GET_FROM_KAFKA),
+                () -> get("/api/orders/getFromKafka")));
+        scenarios.removeIf(scenario -> scenario.ratePerSecond() <= 0);
+        return scenarios;
+    }
+
+    private long randomUser() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    private long randomOrderId() {
+        return orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+    }
+
+    // Seeded orders start NEW; asking for the opposite of the last requested status keeps every update a
+    // valid transition, so the scenario times real updates rather than 409s. Two in-flight updates of the
+    // same order can still race, and those 409s show up under their own status code in the report.
+    private OrderStatus nextStatus(long orderId) {
+        return lastStatuses.compute(orderId,
+                (id, last) -> last == OrderStatus.PROCESSING ? OrderStatus.NEW : OrderStatus.PROCESSING);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return request(path).POST(json(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.orders_exercise.loadtest;
+
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.entity.OrderStatus;
+import com.example.orders_exercise.service.kafka.BinaryOrderEventSerializer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entry point of {@code ./gradlew producerBenchmark}. Publishes order events through a producer
+ * configured like the application's against an embedded Kafka broker, and reports the events per
+ * second for each combination of wire format and compression. Each run gets a fresh producer and
+ * an unmeasured warm-up burst first.
+ */
+public final class ProducerBenchmark {
+
+    private static final int PARTITIONS = 3;
+
+    private ProducerBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> formats = Arrays.asList(System.getProperty("producer.formats", "json,binary").split(","));
+        List<String> compressions = Arrays.asList(System.getProperty("producer.compressions", "none,lz4").split(","));
+        int events = Integer.parseInt(System.getProperty("producer.events", "200000"));
+        int warmupEvents = Integer.parseInt(System.getProperty("producer.warmupEvents", "20000"));
+        int runs = Integer.parseInt(System.getProperty("producer.runs", "3"));
+        Path reportDir = Path.of(System.getProperty("producer.reportDir", "build/reports/producer"));
+
+        List<String> topics = new ArrayList<>();
+        for (String format : formats) {
+            for (String compression : compressions) {
+                topics.add(topic(format.trim(), compression.trim()));
+            }
+        }
+        List<OrderEvent> orderEvents = orderEvents(warmupEvents + events);
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, Object> results = new LinkedHashMap<>();
+        EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, PARTITIONS, topics.toArray(String[]::new));
+        kafka.afterPropertiesSet();
+        try {
+            for (String format : formats) {
+                for (String compression : compressions) {
+                    String topic = topic(format.trim(), compression.trim());
+                    List<Map<String, Object>> samples = new ArrayList<>();
+                    for (int run = 1; run <= runs; run++) {
+                        Map<String, Object> config = producerConfig(kafka.getBrokersAsString(), format.trim(), compression.trim());
+                        try (Producer<String, Object> producer = new KafkaProducer<>(config)) {
+                            // Unmeasured: the first sends pay for metadata, connections and JIT compilation
+                            publish(producer, topic, orderEvents.subList(0, warmupEvents));
+                            samples.add(measure(producer, topic, orderEvents.subList(warmupEvents, orderEvents.size())));
+                        }
+                        System.out.printf("%-6s %-5s run %d: %s%n", format.trim(), compression.trim(), run, samples.get(samples.size() - 1));
+                    }
+                    results.put(format.trim() + "/" + compression.trim(), summarize(samples));
+                }
+            }
+        } finally {
+            kafka.destroy();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("events", events);
+        report.put("warmupEvents", warmupEvents);
+        report.put("runs", runs);
+        report.put("runtime", Reports.runtime());
+        report.put("results", results);
+        Path file = Reports.write(reportDir, "producer", startedAt, report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static String topic(String format, String compression) {
+        return "producer-benchmark-" + format + "-" + compression;
+    }
+
+    // Mirrors KafkaProducerConfig with its default settings, except for the format and compression under test
+    private static Map<String, Object> producerConfig(String bootstrapServers, String format, String compression) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        switch (format) {
+            case "binary" -> config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryOrderEventSerializer.class);
+            case "json" -> {
+                config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+                config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+            }
+            default -> throw new IllegalArgumentException("Unknown wire format: " + format);
+        }
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432L);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 10000L);
+        return config;
+    }
+
+    private static Map<String, Object> measure(Producer<String, Object> producer, String topic, List<OrderEvent> events) {
+        long start = System.nanoTime();
+        publish(producer, topic, events);
+        long elapsedNanos = System.nanoTime() - start;
+
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("eventsPerSecond", Math.round(events.size() * 1e9 / elapsedNanos));
+        sample.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        sample.put("recordSizeAvg", metric(producer, "record-size-avg"));
+        sample.put("compressionRateAvg", metric(producer, "compression-rate-avg"));
+        return sample;
+    }
+
+    // Keyed by order id like the outbox relay; returns once every event is acknowledged
+    private static void publish(Producer<String, Object> producer, String topic, List<OrderEvent> events) {
+        AtomicLong failures = new AtomicLong();
+        for (OrderEvent event : events) {
+            producer.send(new ProducerRecord<>(topic, event.id().toString(), event), (metadata, e) -> {
+                if (e != null) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        producer.flush();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " of " + events.size() + " sends to " + topic + " failed");
+        }
+    }
+
+    private static Object metric(Producer<String, Object> producer, String name) {
+        return producer.metrics().entrySet().stream()
+                .filter(entry -> entry.getKey().group().equals("producer-metrics") && entry.getKey().name().equals(name))
+                .map(entry -> entry.getValue().metricValue())
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static Map<String, Object> summarize(List<Map<String, Object>> samples) {
+        long[] throughput = samples.stream().mapToLong(sample -> (Long) sample.get("eventsPerSecond")).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Map<String, Object> eventsPerSecond = new LinkedHashMap<>();
+        eventsPerSecond.put("min", throughput[0]);
+        eventsPerSecond.put("median", throughput[throughput.length / 2]);
+        eventsPerSecond.put("max", throughput[throughput.length - 1]);
+        summary.put("eventsPerSecond", eventsPerSecond);
+        summary.put("samples", samples);
+        return summary;
+    }
+
+    private static List<OrderEvent> orderEvents(int count) {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 0);
+        OrderStatus[] statuses = OrderStatus.values();
+        List<OrderEvent> orderEvents = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            orderEvents.add(new OrderEvent((long) i, createdAt.plusSeconds(i), statuses[i % statuses.length],
+                    (long) (i % 1000), "Benchmark order " + i + " for user " + (i % 1000)));
+        }
+        return orderEvents;
+    }
+}
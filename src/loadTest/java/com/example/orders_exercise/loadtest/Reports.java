@@ -0,0 +1,40 @@
+package com.example.orders_exercise.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class Reports {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private Reports() {
+    }
+
+    /**
+     * Writes {@code <prefix>-<timestamp>.json} and refreshes {@code latest.json} next to it.
+     */
+    static Path write(Path dir, String prefix, LocalDateTime startedAt, Map<String, Object> report) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(prefix + "-" + startedAt.format(FILE_TIMESTAMP) + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        Files.copy(file, dir.resolve("latest.json"), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    static Map<String, Object> runtime() {
+        Map<String, Object> runtime = new LinkedHashMap<>();
+        runtime.put("javaVersion", System.getProperty("java.version"));
+        runtime.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        runtime.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        return runtime;
+    }
+}
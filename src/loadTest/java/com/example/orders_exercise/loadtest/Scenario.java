@@ -0,0 +1,10 @@
+package com.example.orders_exercise.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.Supplier;
+
+/**
+ * One stream of requests fired at a fixed arrival rate, whether or not earlier ones have completed.
+ */
+record Scenario(String name, double ratePerSecond, Supplier<HttpRequest> requests) {
+}
@@ -0,0 +1,53 @@
+package com.example.orders_exercise.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+record ScenarioResult(String name, double targetRate, Duration duration, long sent, long failures,
+                      long skipped, Map<Integer, Long> statusCodes, Histogram latencies) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    long succeeded() {
+        return latencies.getTotalCount();
+    }
+
+    double throughput() {
+        return succeeded() / (duration.toMillis() / 1000.0);
+    }
+
+    Map<String, Object> toReport() {
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            latencyMs.put("p" + percentileLabel(percentile), millis(latencies.getValueAtPercentile(percentile)));
+        }
+        latencyMs.put("max", millis(latencies.getMaxValue()));
+        latencyMs.put("mean", millis(latencies.getMean()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRate", targetRate);
+        report.put("throughput", Math.round(throughput() * 100) / 100.0);
+        report.put("sent", sent);
+        report.put("succeeded", succeeded());
+        report.put("failures", failures);
+        report.put("skipped", skipped);
+        Map<String, Long> codes = new LinkedHashMap<>();
+        statusCodes.forEach((code, count) -> codes.put(String.valueOf(code), count));
+        report.put("statusCodes", codes);
+        report.put("latencyMs", latencyMs);
+        return report;
+    }
+
+    static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile).replace(".", "");
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.orders_exercise.loadtest;
+
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entry point of {@code ./gradlew startupBenchmark}. Launches the extracted application jar as a
+ * fresh JVM per run and measures the time until the first {@code POST /api/orders} succeeds, for
+ * each startup mode: plain, with the AppCDS archive, and (when built with -Paot) on the AOT context.
+ * Each mode gets one unmeasured warm-up launch first.
+ */
+public final class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds");
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+    private static final String ORDER_JSON = "{\"userId\":1,\"description\":\"Startup probe\"}";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path appJar = Path.of(System.getProperty("startup.appJar"));
+        Path cdsArchive = Path.of(System.getProperty("startup.cdsArchive"));
+        List<String> modes = Arrays.asList(System.getProperty("startup.modes", "default,cds").split(","));
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "5"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(System.getProperty("startup.timeoutSeconds", "120")));
+        Path reportDir = Path.of(System.getProperty("startup.reportDir", "build/reports/startup"));
+        Files.createDirectories(reportDir);
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+             KafkaContainer kafka = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.6.1"))) {
+            postgres.start();
+            kafka.start();
+            List<String> appArgs = List.of(
+                    "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                    "--spring.datasource.username=" + postgres.getUsername(),
+                    "--spring.datasource.password=" + postgres.getPassword(),
+                    "--spring.kafka.bootstrap-servers=" + kafka.getBootstrapServers(),
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.org.hibernate.SQL=WARN",
+                    "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+            );
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(1))
+                    .build();
+            for (String mode : modes) {
+                List<String> jvmArgs = jvmArgs(mode.trim(), cdsArchive);
+                // Unmeasured: the first launch pays for schema creation, topic creation and a cold page cache
+                measure(client, appJar, jvmArgs, appArgs, reportDir.resolve(mode.trim() + "-warmup.log"), timeout);
+                List<Map<String, Object>> samples = new ArrayList<>();
+                for (int run = 1; run <= runs; run++) {
+                    Path log = reportDir.resolve(mode.trim() + "-" + run + ".log");
+                    samples.add(measure(client, appJar, jvmArgs, appArgs, log, timeout));
+                    System.out.printf("%-8s run %d: %s%n", mode.trim(), run, samples.get(samples.size() - 1));
+                }
+                results.put(mode.trim(), summarize(jvmArgs, samples));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("appJar", appJar.toString());
+        report.put("runs", runs);
+        report.put("runtime", Reports.runtime());
+        report.put("modes", results);
+        Path file = Reports.write(reportDir, "startup", startedAt, report);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private static List<String> jvmArgs(String mode, Path cdsArchive) {
+        return switch (mode) {
+            case "default" -> List.of();
+            case "cds" -> List.of("-XX:SharedArchiveFile=" + cdsArchive);
+            case "aot" -> List.of("-Dspring.aot.enabled=true");
+            case "aot-cds" -> List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + cdsArchive);
+            default -> throw new IllegalArgumentException("Unknown startup mode: " + mode);
+        };
+    }
+
+    private static Map<String, Object> measure(HttpClient client, Path appJar, List<String> jvmArgs,
+                                               List<String> appArgs, Path log, Duration timeout) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(appJar.toString());
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ORDER_JSON))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        Map<String, Object> sample = new LinkedHashMap<>();
+                        sample.put("firstPostMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        sample.put("reportedStartupSeconds", reportedStartup(log));
+                        return sample;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException("No successful POST within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static Map<String, Object> summarize(List<String> jvmArgs, List<Map<String, Object>> samples) {
+        long[] firstPost = samples.stream().mapToLong(sample -> (Long) sample.get("firstPostMs")).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jvmArgs", jvmArgs);
+        Map<String, Object> firstPostMs = new LinkedHashMap<>();
+        firstPostMs.put("min", firstPost[0]);
+        firstPostMs.put("median", firstPost[firstPost.length / 2]);
+        firstPostMs.put("max", firstPost[firstPost.length - 1]);
+        summary.put("firstPostMs", firstPostMs);
+        summary.put("samples", samples);
+        return summary;
+    }
+
+    private static Double reportedStartup(Path log) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(log));
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
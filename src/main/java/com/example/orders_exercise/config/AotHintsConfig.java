@@ -0,0 +1,74 @@
+package com.example.orders_exercise.config;
+
+import com.example.orders_exercise.dto.BulkStatusUpdateRequest;
+import com.example.orders_exercise.dto.BulkStatusUpdateResponse;
+import com.example.orders_exercise.dto.CacheStatsDto;
+import com.example.orders_exercise.dto.ConcurrencyLimitDto;
+import com.example.orders_exercise.dto.OrderBucketCountDto;
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.OrderPage;
+import com.example.orders_exercise.dto.OrderSearchRequest;
+import com.example.orders_exercise.dto.OrderStatsDto;
+import com.example.orders_exercise.dto.OrderStatusUpdateRequest;
+import com.example.orders_exercise.dto.OrderTableVersion;
+import com.example.orders_exercise.dto.UserOrderStatsDto;
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.ArchivedOrder;
+import com.example.orders_exercise.entity.Order;
+import com.example.orders_exercise.entity.OutboxDeadLetter;
+import com.example.orders_exercise.entity.OutboxEvent;
+import com.example.orders_exercise.entity.OutboxRelayLease;
+import com.example.orders_exercise.exception.ErrorResponse;
+import com.example.orders_exercise.service.kafka.BinaryOrderEventDeserializer;
+import com.example.orders_exercise.service.kafka.BinaryOrderEventSerializer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.List;
+
+/**
+ * Reflection hints for types that are only reached reflectively: entities Hibernate instantiates,
+ * records bound by Jackson and Kafka (de)serializers created from class names. They are picked up
+ * by AOT processing ({@code ./gradlew fastStartup -Paot}) and by a native image build.
+ */
+@Configuration
+@ImportRuntimeHints(AotHintsConfig.OrderRuntimeHints.class)
+@RegisterReflectionForBinding({
+        OrderDto.class, OrderPage.class, OrderSearchRequest.class, OrderStatusUpdateRequest.class,
+        BulkStatusUpdateRequest.class, BulkStatusUpdateResponse.class, CacheStatsDto.class,
+        ConcurrencyLimitDto.class, OrderStatsDto.class, UserOrderStatsDto.class, OrderBucketCountDto.class,
+        OrderTableVersion.class, ErrorResponse.class, OrderEvent.class, OrderStatusChangedEvent.class, OrderDeletedEvent.class
+})
+public class AotHintsConfig {
+
+    static class OrderRuntimeHints implements RuntimeHintsRegistrar {
+
+        static final List<Class<?>> ENTITIES = List.of(Order.class, ArchivedOrder.class, OutboxEvent.class, OutboxDeadLetter.class, OutboxRelayLease.class);
+
+        static final List<Class<?>> KAFKA_SERIALIZERS = List.of(
+                StringSerializer.class, JsonSerializer.class, BinaryOrderEventSerializer.class,
+                StringDeserializer.class, ByteArrayDeserializer.class, BinaryOrderEventDeserializer.class
+        );
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            ENTITIES.forEach(entity -> hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+            hints.reflection().registerType(ShardSequenceGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            KAFKA_SERIALIZERS.forEach(serializer -> hints.reflection().registerType(serializer,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.orders_exercise.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+
+/**
+ * Keeps the mapping metadata Hibernate builds the session factory from. {@link ShardSchemaInitializer}
+ * needs it to run a schema update on the other shards, and the session factory does not expose it.
+ */
+public class MappingMetadataIntegrator implements Integrator {
+
+    private volatile Metadata metadata;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+    }
+
+    Metadata getMetadata() {
+        if (metadata == null) {
+            throw new IllegalStateException("The session factory has not been built yet");
+        }
+        return metadata;
+    }
+}
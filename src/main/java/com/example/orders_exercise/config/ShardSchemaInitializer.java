@@ -0,0 +1,127 @@
+package com.example.orders_exercise.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.internal.ExceptionHandlerHaltImpl;
+import org.hibernate.tool.schema.spi.ContributableMatcher;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.ScriptTargetOutput;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hibernate and {@code spring.sql.init} only manage the schema of shard 0; this brings the other
+ * shards up to the same schema at startup. Unless {@code ddl-auto} is {@code validate} or {@code none},
+ * each shard gets a Hibernate schema update, so columns and tables added later reach existing shards too.
+ * Whatever {@code ddl-auto} is, each shard's {@code orders_seq} is then moved up into the shard's own
+ * block of ids whenever it is below it, so ids stay unique across shards whichever shard issued them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.shards.additional[0].url")
+public class ShardSchemaInitializer implements InitializingBean {
+
+    // Keeps ids of up to 512 shards below 2^53, the largest integer JavaScript clients can hold exactly
+    static final long ID_BLOCK_SIZE = 1L << 44;
+
+    // Matches the increment size of orders_seq, so the first pooled block starts exactly at the shard's block
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final TargetDescriptor DATABASE_TARGET = new TargetDescriptor() {
+        @Override
+        public EnumSet<TargetType> getTargetTypes() {
+            return EnumSet.of(TargetType.DATABASE);
+        }
+
+        @Override
+        public ScriptTargetOutput getScriptTargetOutput() {
+            return null;
+        }
+    };
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final MappingMetadataIntegrator mappingMetadata;
+    private final ShardRoutingDataSource dataSource;
+    private final ResourceLoader resourceLoader;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto;
+
+    @Value("${spring.sql.init.mode:embedded}")
+    private String sqlInitMode;
+
+    @Value("${spring.sql.init.platform:all}")
+    private String sqlInitPlatform;
+
+    public ShardSchemaInitializer(EntityManagerFactory entityManagerFactory,
+                                  MappingMetadataIntegrator mappingMetadata,
+                                  ShardRoutingDataSource dataSource,
+                                  ResourceLoader resourceLoader) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.mappingMetadata = mappingMetadata;
+        this.dataSource = dataSource;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Resource script = resourceLoader.getResource("classpath:schema-" + sqlInitPlatform + ".sql");
+        for (int shard = 1; shard < dataSource.shardCount(); shard++) {
+            int current = shard;
+            ShardRoutingDataSource.withShard(shard, () -> {
+                if ("validate".equals(ddlAuto)) {
+                    sessionFactory.getSchemaManager().validateMappedObjects();
+                } else if (!"none".equals(ddlAuto)) {
+                    update(current);
+                }
+                moveIdSequence(current);
+                if (!"never".equals(sqlInitMode) && script.exists()) {
+                    new ResourceDatabasePopulator(script).execute(dataSource);
+                }
+                return null;
+            });
+        }
+    }
+
+    // Same as ddl-auto=update on shard 0: creates what is missing and never drops anything
+    private void update(int shard) {
+        log.info("Updating the order schema on shard {}", shard);
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+        SchemaManagementTool tool = sessionFactory.getServiceRegistry().getService(SchemaManagementTool.class);
+        tool.getSchemaMigrator(settings).doMigration(
+                mappingMetadata.getMetadata(),
+                SchemaManagementToolCoordinator.buildExecutionOptions(settings, ExceptionHandlerHaltImpl.INSTANCE),
+                ContributableMatcher.ALL,
+                DATABASE_TARGET
+        );
+    }
+
+    // Checked on every start, not only when the shard is created; the sequence only ever moves forward
+    private void moveIdSequence(int shard) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String nextValue = sessionFactory.getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("orders_seq");
+        Long current = jdbcTemplate.queryForObject(nextValue, Long.class);
+        long blockStart = shard * ID_BLOCK_SIZE + ID_ALLOCATION_SIZE;
+        if (current == null || current < blockStart) {
+            log.info("Moving orders_seq on shard {} from {} to {}", shard, current, blockStart);
+            jdbcTemplate.execute("alter sequence orders_seq restart with " + blockStart);
+        } else if (current >= (shard + 1) * ID_BLOCK_SIZE) {
+            log.warn("orders_seq on shard {} is at {}, past the end of the shard's id block", shard, current);
+        }
+    }
+}
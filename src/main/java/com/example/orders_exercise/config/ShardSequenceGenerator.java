@@ -0,0 +1,29 @@
+package com.example.orders_exercise.config;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pooled sequence generator that keeps one pool of ids per shard. The plain generator shares a single
+ * pool across the session factory, so ids fetched from one shard's sequence would be handed to rows of
+ * another shard, where that shard's own sequence issues them again later.
+ */
+public class ShardSequenceGenerator extends SequenceStyleGenerator {
+
+    private final Map<Integer, Optimizer> optimizers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        // The session's connection, which the sequence is read through, belongs to the bound shard
+        int shard = Objects.requireNonNullElse(ShardRoutingDataSource.currentShard(), 0);
+        Optimizer optimizer = optimizers.computeIfAbsent(shard,
+                ignored -> new PooledOptimizer(Long.class, getOptimizer().getIncrementSize()));
+        return optimizer.generate(getDatabaseStructure().buildCallback(session));
+    }
+}
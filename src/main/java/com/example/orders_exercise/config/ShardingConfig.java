@@ -0,0 +1,57 @@
+package com.example.orders_exercise.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single datasource with one pool per shard once {@code orders.shards.additional[n]}
+ * datasources are configured. {@code spring.datasource} stays shard 0, and every pool gets the
+ * {@code spring.datasource.hikari} settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.shards.additional[0].url")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> shards = new ArrayList<>();
+        shards.add(dataSourceProperties);
+        shards.addAll(binder.bind("orders.shards.additional", Bindable.listOf(DataSourceProperties.class))
+                .orElse(List.of()));
+
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            HikariDataSource dataSource = shards.get(shard).initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("orders-shard-" + shard);
+            dataSources.add(dataSource);
+        }
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    @Bean
+    public MappingMetadataIntegrator mappingMetadataIntegrator() {
+        return new MappingMetadataIntegrator();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer mappingMetadataIntegratorCustomizer(MappingMetadataIntegrator integrator) {
+        return properties -> properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(integrator));
+    }
+}
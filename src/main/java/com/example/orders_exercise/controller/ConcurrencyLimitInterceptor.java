@@ -0,0 +1,51 @@
+package com.example.orders_exercise.controller;
+
+import com.example.orders_exercise.exception.ConcurrencyLimitExceededException;
+import com.example.orders_exercise.service.AdaptiveConcurrencyLimiter;
+import com.example.orders_exercise.service.ConcurrencyLimits;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+@Component
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimits concurrencyLimits;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimits concurrencyLimits) {
+        this.concurrencyLimits = concurrencyLimits;
+    }
+
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses come back through an async dispatch that keeps the original permit
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        ConcurrencyLimited limited = handlerMethod.getMethodAnnotation(ConcurrencyLimited.class);
+        if (limited == null) {
+            return true;
+        }
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimits.limiter(limited.value());
+        if (!limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException(limited.value(), concurrencyLimits.retryAfterSeconds(limited.value()));
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.limiter().release(System.nanoTime() - permit.startNanos(), ex != null || response.getStatus() >= 500);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orders_exercise.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a handler behind the adaptive concurrency limit of the named endpoint class.
+ * Handlers without it, such as point reads, are never shed.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+    String value();
+}
@@ -1,65 +1,213 @@
 package com.example.orders_exercise.controller;
 
+import com.example.orders_exercise.dto.BulkStatusUpdateRequest;
+import com.example.orders_exercise.dto.BulkStatusUpdateResponse;
+import com.example.orders_exercise.dto.CacheStatsDto;
+import com.example.orders_exercise.dto.ConcurrencyLimitDto;
+import com.example.orders_exercise.dto.OrderCursor;
 import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.OrderPage;
 import com.example.orders_exercise.dto.OrderSearchRequest;
 import com.example.orders_exercise.dto.OrderStatusUpdateRequest;
 import com.example.orders_exercise.entity.Order;
 import com.example.orders_exercise.entity.OrderStatus;
 import com.example.orders_exercise.exception.OrderNotFoundException;
 import com.example.orders_exercise.exception.ValidationException;
+import com.example.orders_exercise.service.ConcurrencyLimits;
+import com.example.orders_exercise.service.IdempotencyStore;
+import com.example.orders_exercise.service.OrderFeed;
 import com.example.orders_exercise.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final OrderService orderService;
+    private final OrderFeed orderFeed;
+    private final ConcurrencyLimits concurrencyLimits;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${orders.batch.max-size:10000}")
+    private int maxBatchSize;
 
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder(@RequestBody OrderDto request) {
+    public ResponseEntity<OrderDto> createOrder(
+            @RequestBody OrderDto request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         Map<String, String> errors = validateOrderDto(request);
         if (!errors.isEmpty()) {
             throw new ValidationException(errors);
         }
 
-        Order order = new Order();
-        order.setUserId(request.userId());
-        order.setDescription(request.description());
-        Order savedOrder = orderService.saveOrder(order);
-        return ResponseEntity.ok(mapToDto(savedOrder));
+        return idempotent(idempotencyStore.execute("create", idempotencyKey, request,
+                () -> mapToDto(orderService.saveOrder(toNewOrder(request)))));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ConcurrencyLimited("batch")
+    public ResponseEntity<List<OrderDto>> createOrders(
+            @RequestBody List<OrderDto> requests,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return saveBatch(requests, idempotencyKey);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ConcurrencyLimited("batch")
+    public ResponseEntity<List<OrderDto>> createOrdersFromStream(
+            InputStream body,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) throws IOException {
+        List<OrderDto> requests = new ArrayList<>();
+        try (MappingIterator<OrderDto> lines = objectMapper.readerFor(OrderDto.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (requests.size() == maxBatchSize) {
+                    throw new ValidationException("orders", "Batch cannot exceed " + maxBatchSize + " orders");
+                }
+                requests.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("[" + requests.size() + "]", "Malformed order: " + e.getOriginalMessage());
+        }
+        return saveBatch(requests, idempotencyKey);
     }
 
     @GetMapping
-    public List<OrderDto> getAllOrders() {
-        return orderService.getAllOrders().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @ConcurrencyLimited("search")
+    public ResponseEntity<List<OrderDto>> getAllOrders(WebRequest request) {
+        // Taken before the rows are read, so a concurrent write can only make the tag stale, never the body
+        String etag = weakEtag(orderService.getAllOrdersVersion());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(orderService.getAllOrders());
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ConcurrencyLimited("search")
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return ndjson(out -> orderService.streamOrders(
+                null, null, null, null, null, null,
+                order -> writeLine(out, order)
+        ));
+    }
+
+    @GetMapping("/page")
+    @ConcurrencyLimited("search")
+    public OrderPage getOrdersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return mapToPage(orderService.searchOrders(
+                null, null, null, null, null, null, OrderCursor.decode(cursor), size
+        ));
+    }
+
+    @GetMapping("/user/{userId}")
+    @ConcurrencyLimited("search")
+    public OrderPage getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return mapToPage(orderService.getOrdersByUser(userId, OrderCursor.decode(cursor), size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents() {
+        return orderFeed.subscribe();
+    }
+
+    @GetMapping("/limits")
+    public Map<String, ConcurrencyLimitDto> getConcurrencyLimits() {
+        Map<String, ConcurrencyLimitDto> limits = new LinkedHashMap<>();
+        concurrencyLimits.getLimiters().forEach((endpointClass, limiter) -> limits.put(endpointClass,
+                new ConcurrencyLimitDto(limiter.getLimit(), limiter.getInFlight(), limiter.getRejected())));
+        return limits;
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, CacheStatsDto> getCacheStats() {
+        Map<String, CacheStatsDto> stats = new LinkedHashMap<>();
+        orderService.getCacheStats().forEach((name, cacheStats) -> stats.put(name, new CacheStatsDto(
+                cacheStats.hitCount(),
+                cacheStats.missCount(),
+                cacheStats.evictionCount(),
+                cacheStats.hitRate()
+        )));
+        return stats;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDto> getOrderById(@PathVariable Long id) {
-        Order order = orderService.getOrderById(id)
+    public ResponseEntity<OrderDto> getOrderById(@PathVariable Long id, WebRequest request) {
+        OrderDto order = orderService.getOrderById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
-        return ResponseEntity.ok(mapToDto(order));
+        if (order.version() == null) {
+            return ResponseEntity.ok(order);
+        }
+        String etag = weakEtag(order.id() + "-" + order.version());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(order);
     }
 
     @GetMapping("/getFromKafka")
-    public ResponseEntity<OrderDto> getFromKafka() {
-        Order order = orderService.getOrderFromQueue()
+    @ConcurrencyLimited("kafka")
+    public ResponseEntity<OrderDto> getFromKafka(@RequestParam(required = false) Integer partition) {
+        Optional<OrderDto> latest = partition == null
+                ? orderService.getOrderFromQueue()
+                : orderService.getOrderFromQueue(partition);
+        OrderDto order = latest
                 .orElseThrow(() -> new OrderNotFoundException("No order found in Kafka queue"));
-        return ResponseEntity.ok(mapToDto(order));
+        return ResponseEntity.ok(order);
+    }
+
+    @GetMapping("/getFromKafka/{id}")
+    @ConcurrencyLimited("kafka")
+    public ResponseEntity<OrderDto> getFromKafkaById(@PathVariable Long id) {
+        OrderDto order = orderService.getOrderFromQueueById(id)
+                .orElseThrow(() -> new OrderNotFoundException("No recent order found in Kafka queue with id: " + id));
+        return ResponseEntity.ok(order);
     }
 
     @PostMapping("/search")
+    @ConcurrencyLimited("search")
     public List<OrderDto> searchOrders(@RequestBody OrderSearchRequest request) {
         return orderService.searchOrders(
                 request.id(),
@@ -68,9 +216,80 @@ public class OrderController {
                 request.description(),
                 request.startDate(),
                 request.endDate()
-        ).stream()
-         .map(this::mapToDto)
-         .collect(Collectors.toList());
+        );
+    }
+
+    @PostMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ConcurrencyLimited("search")
+    public ResponseEntity<StreamingResponseBody> streamSearchOrders(@RequestBody OrderSearchRequest request) {
+        return ndjson(out -> orderService.streamOrders(
+                request.id(),
+                request.status(),
+                request.userId(),
+                request.description(),
+                request.startDate(),
+                request.endDate(),
+                order -> writeLine(out, order)
+        ));
+    }
+
+    @PostMapping("/export")
+    @ConcurrencyLimited("export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestBody OrderSearchRequest request,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new ValidationException("format", "Format must be csv or ndjson");
+        }
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : out;
+            OrderExportWriter writer = csv ? OrderExportWriter.csv(target) : OrderExportWriter.ndjson(target, objectMapper);
+            orderService.exportOrders(
+                    request.id(),
+                    request.status(),
+                    request.userId(),
+                    request.description(),
+                    request.startDate(),
+                    request.endDate(),
+                    writer
+            );
+            writer.finish();
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "orders.csv" : "orders.ndjson")
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @PostMapping("/search/page")
+    @ConcurrencyLimited("search")
+    public OrderPage searchOrdersPage(
+            @RequestBody OrderSearchRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return mapToPage(orderService.searchOrders(
+                request.id(),
+                request.status(),
+                request.userId(),
+                request.description(),
+                request.startDate(),
+                request.endDate(),
+                OrderCursor.decode(cursor),
+                size
+        ));
     }
 
     @PatchMapping("/{id}/status")
@@ -86,12 +305,81 @@ public class OrderController {
         return ResponseEntity.ok(mapToDto(updatedOrder));
     }
 
+    @PatchMapping("/status")
+    @ConcurrencyLimited("batch")
+    public BulkStatusUpdateResponse updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        Map<String, String> errors = new HashMap<>();
+        if (request.fromStatus() == null) {
+            errors.put("fromStatus", "From status cannot be null");
+        }
+        if (request.toStatus() == null) {
+            errors.put("toStatus", "To status cannot be null");
+        }
+        boolean hasIds = request.ids() != null && !request.ids().isEmpty();
+        if (hasIds == (request.userId() != null)) {
+            errors.put("ids", "Exactly one of ids or userId must be given");
+        } else if (hasIds && request.ids().size() > maxBatchSize) {
+            errors.put("ids", "Cannot update more than " + maxBatchSize + " orders by id");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        List<Long> updated = orderService.updateOrderStatuses(
+                request.ids(), request.userId(), request.fromStatus(), request.toStatus());
+        return new BulkStatusUpdateResponse(updated.size(), updated);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
         return ResponseEntity.noContent().build();
     }
 
+    private ResponseEntity<List<OrderDto>> saveBatch(List<OrderDto> requests, String idempotencyKey) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (requests.size() > maxBatchSize) {
+            errors.put("orders", "Batch cannot exceed " + maxBatchSize + " orders");
+        }
+        for (int i = 0; i < requests.size() && errors.size() < MAX_REPORTED_ERRORS; i++) {
+            OrderDto request = requests.get(i);
+            if (request == null) {
+                errors.put("[" + i + "]", "Order cannot be null");
+                continue;
+            }
+            int index = i;
+            validateOrderDto(request).forEach((field, message) -> errors.put("[" + index + "]." + field, message));
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+
+        // JSON and NDJSON batches share a scope, so a retry may switch format and still be recognised
+        return idempotent(idempotencyStore.execute("batch", idempotencyKey, requests, () -> {
+            List<Order> orders = requests.stream()
+                    .map(this::toNewOrder)
+                    .collect(Collectors.toList());
+            return orderService.saveOrders(orders).stream()
+                    .map(this::mapToDto)
+                    .collect(Collectors.toList());
+        }));
+    }
+
+    private static <T> ResponseEntity<T> idempotent(IdempotencyStore.Execution<T> execution) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (execution.replayed()) {
+            response.header(IdempotencyStore.REPLAYED_HEADER, "true");
+        }
+        return response.body(execution.response());
+    }
+
+    private Order toNewOrder(OrderDto request) {
+        Order order = new Order();
+        order.setUserId(request.userId());
+        order.setDescription(request.description());
+        return order;
+    }
+
     private Map<String, String> validateOrderDto(OrderDto orderDto) {
         Map<String, String> errors = new HashMap<>();
 
@@ -106,13 +394,42 @@ public class OrderController {
         return errors;
     }
 
-    private OrderDto mapToDto(Order order) {
+    private OrderPage mapToPage(Window<OrderDto> window) {
+        List<OrderDto> items = window.getContent();
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? OrderCursor.of(window.getContent().get(window.size() - 1)).encode()
+                : null;
+        return new OrderPage(items, nextCursor);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream out, OrderDto dto) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(dto));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Weak, since the compressed and plain encodings of one version are different bytes
+    private static String weakEtag(String version) {
+        return "W/\"" + version + "\"";
+    }
+
+    OrderDto mapToDto(Order order) {
         return new OrderDto(
                 order.getId(),
                 order.getCreatedAt(),
                 order.getStatus(),
                 order.getUserId(),
-                order.getDescription()
+                order.getDescription(),
+                order.getVersion()
         );
     }
 }
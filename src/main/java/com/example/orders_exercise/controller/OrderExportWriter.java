@@ -0,0 +1,120 @@
+package com.example.orders_exercise.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes export rows straight from the result set to the response, one line per order.
+ */
+abstract class OrderExportWriter implements RowCallbackHandler {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static OrderExportWriter csv(OutputStream out) {
+        return new Csv(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    static OrderExportWriter ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return new Ndjson(objectMapper.getFactory().createGenerator(out));
+    }
+
+    @Override
+    public final void processRow(ResultSet rs) throws SQLException {
+        try {
+            writeRow(rs.getLong(1), rs.getObject(2, LocalDateTime.class), rs.getString(3),
+                    rs.getLong(4), rs.getString(5));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    abstract void writeRow(long id, LocalDateTime createdAt, String status, long userId, String description) throws IOException;
+
+    abstract void finish() throws IOException;
+
+    private static final class Csv extends OrderExportWriter {
+        private final Writer writer;
+
+        private Csv(Writer writer) {
+            this.writer = writer;
+            try {
+                writer.write("id,createdAt,status,userId,description\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        void writeRow(long id, LocalDateTime createdAt, String status, long userId, String description) throws IOException {
+            writer.write(Long.toString(id));
+            writer.write(',');
+            writer.write(createdAt != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt) : "");
+            writer.write(',');
+            writer.write(status != null ? status : "");
+            writer.write(',');
+            writer.write(Long.toString(userId));
+            writer.write(',');
+            writeQuoted(description);
+            writer.write('\n');
+        }
+
+        private void writeQuoted(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class Ndjson extends OrderExportWriter {
+        private final JsonGenerator generator;
+
+        private Ndjson(JsonGenerator generator) {
+            this.generator = generator;
+            // Lines are separated by the newline below; the default separator would indent every line after the first
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(long id, LocalDateTime createdAt, String status, long userId, String description) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeFieldName("createdAt");
+            generator.writeObject(createdAt);
+            generator.writeStringField("status", status);
+            generator.writeNumberField("userId", userId);
+            generator.writeStringField("description", description);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.orders_exercise.controller;
+
+import com.example.orders_exercise.dto.OrderBucketCountDto;
+import com.example.orders_exercise.dto.OrderStatsDto;
+import com.example.orders_exercise.dto.UserOrderStatsDto;
+import com.example.orders_exercise.exception.ValidationException;
+import com.example.orders_exercise.service.OrderStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/orders/stats")
+@RequiredArgsConstructor
+public class OrderStatsController {
+
+    private final OrderStatistics orderStatistics;
+
+    @GetMapping
+    public OrderStatsDto getStats() {
+        return orderStatistics.getStats();
+    }
+
+    @GetMapping("/users/{userId}")
+    public UserOrderStatsDto getUserStats(@PathVariable Long userId) {
+        return new UserOrderStatsDto(userId, orderStatistics.getUserOrderCount(userId));
+    }
+
+    @GetMapping("/timeline")
+    public List<OrderBucketCountDto> getTimeline(@RequestParam(defaultValue = "hour") String bucket,
+                                                 @RequestParam(required = false) String from,
+                                                 @RequestParam(required = false) String to) {
+        LocalDateTime fromTime = parseTime("from", from);
+        LocalDateTime toTime = parseTime("to", to);
+        if (fromTime != null && toTime != null && fromTime.isAfter(toTime)) {
+            throw new ValidationException("from", "From must not be after to");
+        }
+        return orderStatistics.getTimeline(parseBucket(bucket), fromTime, toTime);
+    }
+
+    private OrderStatistics.Bucket parseBucket(String bucket) {
+        try {
+            return OrderStatistics.Bucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("bucket", "Bucket must be one of minute, hour, day");
+        }
+    }
+
+    private LocalDateTime parseTime(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(field, "Invalid date-time: " + value);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.orders_exercise.dto;
+
+import com.example.orders_exercise.entity.OrderStatus;
+
+import java.util.List;
+
+public record BulkStatusUpdateRequest(List<Long> ids, Long userId, OrderStatus fromStatus, OrderStatus toStatus) {
+}
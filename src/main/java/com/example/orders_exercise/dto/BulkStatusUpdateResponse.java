@@ -0,0 +1,6 @@
+package com.example.orders_exercise.dto;
+
+import java.util.List;
+
+public record BulkStatusUpdateResponse(int updated, List<Long> ids) {
+}
@@ -0,0 +1,4 @@
+package com.example.orders_exercise.dto;
+
+public record CacheStatsDto(long hitCount, long missCount, long evictionCount, double hitRate) {
+}
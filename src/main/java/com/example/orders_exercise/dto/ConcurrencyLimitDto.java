@@ -0,0 +1,4 @@
+package com.example.orders_exercise.dto;
+
+public record ConcurrencyLimitDto(int limit, int inFlight, long rejected) {
+}
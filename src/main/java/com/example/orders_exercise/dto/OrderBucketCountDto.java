@@ -0,0 +1,6 @@
+package com.example.orders_exercise.dto;
+
+import java.time.LocalDateTime;
+
+public record OrderBucketCountDto(LocalDateTime start, long count) {
+}
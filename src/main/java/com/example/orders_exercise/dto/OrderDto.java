@@ -4,5 +4,10 @@ import com.example.orders_exercise.entity.OrderStatus;
 
 import java.time.LocalDateTime;
 
-public record OrderDto(Long id, LocalDateTime createdAt, OrderStatus status, Long userId, String description) {
+public record OrderDto(Long id, LocalDateTime createdAt, OrderStatus status, Long userId, String description,
+                       Long version) {
+
+    public OrderDto(Long id, LocalDateTime createdAt, OrderStatus status, Long userId, String description) {
+        this(id, createdAt, status, userId, description, null);
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.orders_exercise.dto;
+
+import com.example.orders_exercise.entity.OrderStatus;
+
+import java.util.Map;
+
+public record OrderStatsDto(long total, Map<OrderStatus, Long> byStatus) {
+}
@@ -0,0 +1,13 @@
+package com.example.orders_exercise.dto;
+
+/**
+ * Aggregates of an orders table, hot or archived, that change with its rows: an insert or delete moves {@code count}
+ * and {@code idChecksum}, and every update raises {@code versionSum}. Ids are summed modulo 2^31 - 1,
+ * so the sum cannot overflow however many orders there are.
+ */
+public record OrderTableVersion(long count, long idChecksum, long versionSum) {
+
+    public String tag() {
+        return count + "-" + idChecksum + "-" + versionSum;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.orders_exercise.dto.kafka;
+
+import com.example.orders_exercise.entity.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Carries the order as it was deleted, so consumers can take it back out of what they counted
+public record OrderDeletedEvent(Long orderId, Long userId, OrderStatus status, LocalDateTime createdAt, LocalDateTime timestamp) {
+}
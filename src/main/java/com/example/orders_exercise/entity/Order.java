@@ -1,9 +1,14 @@
 package com.example.orders_exercise.entity;
 
+import com.example.orders_exercise.config.ShardSequenceGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +19,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "orders_seq")
+    @GenericGenerator(name = "orders_seq", type = ShardSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @Column(nullable = false)
@@ -28,4 +37,10 @@ public class Order {
 
     @Column(nullable = false)
     private String description;
+
+    // Bulk status updates bump it in their UPDATE statements; the default fills existing rows on schema update
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
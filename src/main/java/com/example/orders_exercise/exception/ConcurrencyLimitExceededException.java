@@ -0,0 +1,13 @@
+package com.example.orders_exercise.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimitExceededException(String endpointClass, int retryAfterSeconds) {
+        super("Too many concurrent " + endpointClass + " requests, retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.orders_exercise.exception;
+
+import com.example.orders_exercise.entity.OrderStatus;
+
+public class OrderStatusConflictException extends RuntimeException {
+
+    public OrderStatusConflictException(Long id, OrderStatus from, OrderStatus to) {
+        super("Order " + id + " cannot move from " + from + " to " + to);
+    }
+
+    public OrderStatusConflictException(OrderStatus from, OrderStatus to) {
+        super("Orders cannot move from " + from + " to " + to);
+    }
+
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+}
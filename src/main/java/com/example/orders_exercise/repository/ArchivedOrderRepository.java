@@ -0,0 +1,24 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.dto.OrderTableVersion;
+import com.example.orders_exercise.entity.ArchivedOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long>, JpaSpecificationExecutor<ArchivedOrder> {
+
+    @Query("select a.id from ArchivedOrder a where a.createdAt < :cutoff order by a.id")
+    List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select new com.example.orders_exercise.dto.OrderTableVersion(count(a), " +
+            "coalesce(sum(mod(a.id, 2147483647)), 0L), coalesce(sum(a.version), 0L)) from ArchivedOrder a")
+    OrderTableVersion fetchTableVersion();
+}
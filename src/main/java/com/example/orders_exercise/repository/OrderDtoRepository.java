@@ -0,0 +1,99 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.dto.OrderCursor;
+import com.example.orders_exercise.dto.OrderDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-only queries that select straight into {@link OrderDto} with a constructor expression,
+ * so no entity is instantiated, registered in the persistence context or snapshotted for
+ * dirty checking. Works against both {@code Order} and {@code ArchivedOrder}.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class OrderDtoRepository {
+
+    private final EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.fetch_size:500}")
+    private int fetchSize;
+
+    public OrderDtoRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public <T> Optional<OrderDto> findById(Class<T> entityType, Long id) {
+        return query(entityType, (root, query, cb) -> cb.equal(root.get("id"), id), null, false)
+                .getResultStream()
+                .findFirst();
+    }
+
+    public <T> List<OrderDto> findAll(Class<T> entityType, Specification<T> spec) {
+        return query(entityType, spec, null, false).getResultList();
+    }
+
+    public <T> Window<OrderDto> findWindow(Class<T> entityType, Specification<T> spec, OrderCursor after, int limit) {
+        List<OrderDto> rows = query(entityType, spec, after, true)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<OrderDto> page = hasNext ? rows.subList(0, limit) : rows;
+        return Window.from(page, i -> OrderCursor.toScrollPosition(OrderCursor.of(page.get(i))), hasNext);
+    }
+
+    public <T> Stream<OrderDto> stream(Class<T> entityType, Specification<T> spec) {
+        return query(entityType, spec, null, true)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private <T> TypedQuery<OrderDto> query(Class<T> entityType, Specification<T> spec, OrderCursor after, boolean keysetOrder) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderDto> query = cb.createQuery(OrderDto.class);
+        Root<T> root = query.from(entityType);
+        query.select(cb.construct(OrderDto.class,
+                root.get("id"), root.get("createdAt"), root.get("status"), root.get("userId"), root.get("description"),
+                root.get("version")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(root.<LocalDateTime>get("createdAt"), after.createdAt()),
+                    cb.and(
+                            cb.equal(root.get("createdAt"), after.createdAt()),
+                            cb.lessThan(root.<Long>get("id"), after.id())
+                    )
+            ));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        if (keysetOrder) {
+            query.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        }
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, "MANUAL");
+    }
+}
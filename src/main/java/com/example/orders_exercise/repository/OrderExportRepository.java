@@ -0,0 +1,72 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.entity.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads order rows straight off a JDBC cursor for exports, without building entities.
+ * PostgreSQL only streams with a fetch size inside a transaction, so callers must hold one.
+ */
+@Repository
+public class OrderExportRepository {
+
+    private static final String COLUMNS = "id, created_at, status, user_id, description";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderExportRepository(DataSource dataSource,
+                                 @Value("${orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void forEachOrder(Long id, OrderStatus status, Long userId, String description,
+                             LocalDateTime startDate, LocalDateTime endDate, RowCallbackHandler handler) {
+        query("orders", id, status, userId, description, startDate, endDate, handler);
+    }
+
+    public void forEachArchivedOrder(Long id, OrderStatus status, Long userId, String description,
+                                     LocalDateTime startDate, LocalDateTime endDate, RowCallbackHandler handler) {
+        query("orders_archive", id, status, userId, description, startDate, endDate, handler);
+    }
+
+    private void query(String table, Long id, OrderStatus status, Long userId, String description,
+                       LocalDateTime startDate, LocalDateTime endDate, RowCallbackHandler handler) {
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from ").append(table).append(" where 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (id != null) {
+            sql.append(" and id = ?");
+            args.add(id);
+        }
+        if (status != null) {
+            sql.append(" and status = ?");
+            args.add(status.name());
+        }
+        if (userId != null) {
+            sql.append(" and user_id = ?");
+            args.add(userId);
+        }
+        if (description != null && !description.isEmpty()) {
+            sql.append(" and lower(description) like ? escape '\\'");
+            args.add(OrderSpecification.containsPattern(description));
+        }
+        if (startDate != null) {
+            sql.append(" and created_at >= ?");
+            args.add(startDate);
+        }
+        if (endDate != null) {
+            sql.append(" and created_at <= ?");
+            args.add(endDate);
+        }
+        sql.append(" order by id");
+        jdbcTemplate.query(sql.toString(), handler, args.toArray());
+    }
+}
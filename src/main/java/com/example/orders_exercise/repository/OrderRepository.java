@@ -1,18 +1,66 @@
 package com.example.orders_exercise.repository;
 
+import com.example.orders_exercise.dto.OrderTableVersion;
 import com.example.orders_exercise.entity.Order;
 import com.example.orders_exercise.entity.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findByStatus(OrderStatus status);
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Query("select o from Order o where lower(o.description) like %?#{escape([0]).toLowerCase()}% escape ?#{escapeCharacter()}")
     List<Order> findByDescriptionContainingIgnoreCase(String description);
+
     List<Order> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :newStatus, o.version = o.version + 1 where o.id = :id and o.status = :expectedStatus")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("expectedStatus") OrderStatus expectedStatus,
+                            @Param("newStatus") OrderStatus newStatus);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Order o set o.status = :newStatus, o.version = o.version + 1 " +
+            "where o.id in :ids and o.status = :expectedStatus")
+    int compareAndSetStatus(@Param("ids") Collection<Long> ids,
+                            @Param("expectedStatus") OrderStatus expectedStatus,
+                            @Param("newStatus") OrderStatus newStatus);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from Order o where o.status in :statuses and o.createdAt < :cutoff order by o.id")
+    List<Order> findArchivable(@Param("statuses") Collection<OrderStatus> statuses,
+                               @Param("cutoff") LocalDateTime cutoff,
+                               Limit limit);
+
+    @Modifying
+    @Query("insert into ArchivedOrder (id, createdAt, status, userId, description, version) " +
+            "select o.id, o.createdAt, o.status, o.userId, o.description, o.version from Order o where o.id in :ids")
+    int copyToArchive(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.example.orders_exercise.dto.OrderTableVersion(count(o), " +
+            "coalesce(sum(mod(o.id, 2147483647)), 0L), coalesce(sum(o.version), 0L)) from Order o")
+    OrderTableVersion fetchTableVersion();
+
+    @Query(value = "select id from orders where user_id = :userId and status = :status order by id limit :limit for update", nativeQuery = true)
+    List<Long> lockIdsByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status, @Param("limit") int limit);
+
+    @Query(value = "select id from orders where id in (:ids) and status = :status order by id for update", nativeQuery = true)
+    List<Long> lockIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
 }
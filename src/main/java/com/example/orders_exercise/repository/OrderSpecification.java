@@ -1,6 +1,5 @@
 package com.example.orders_exercise.repository;
 
-import com.example.orders_exercise.entity.Order;
 import com.example.orders_exercise.entity.OrderStatus;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -8,10 +7,13 @@ import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
 
 public class OrderSpecification {
 
-    public static Specification<Order> filterBy(Long id, OrderStatus status, Long userId, 
+    private static final char LIKE_ESCAPE = '\\';
+
+    public static <T> Specification<T> filterBy(Long id, OrderStatus status, Long userId, 
                                                String description, LocalDateTime startDate, 
                                                LocalDateTime endDate) {
         return (root, query, criteriaBuilder) -> {
@@ -31,8 +33,9 @@ public class OrderSpecification {
             
             if (description != null && !description.isEmpty()) {
                 predicates.add(criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("description")), 
-                    "%" + description.toLowerCase() + "%"
+                    criteriaBuilder.lower(root.get("description")),
+                    containsPattern(description),
+                    LIKE_ESCAPE
                 ));
             }
             
@@ -47,4 +50,41 @@ public class OrderSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    public static String filterShape(Long id, OrderStatus status, Long userId,
+                                     String description, LocalDateTime startDate,
+                                     LocalDateTime endDate) {
+        StringJoiner shape = new StringJoiner("+");
+        shape.setEmptyValue("none");
+        if (id != null) {
+            shape.add("id");
+        }
+        if (status != null) {
+            shape.add("status");
+        }
+        if (userId != null) {
+            shape.add("userId");
+        }
+        if (description != null && !description.isEmpty()) {
+            shape.add("description");
+        }
+        if (startDate != null) {
+            shape.add("startDate");
+        }
+        if (endDate != null) {
+            shape.add("endDate");
+        }
+        return shape.toString();
+    }
+
+    static String containsPattern(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toLowerCase().toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.orders_exercise.repository;
+
+import com.example.orders_exercise.entity.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
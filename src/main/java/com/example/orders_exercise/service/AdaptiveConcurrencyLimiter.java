@@ -0,0 +1,84 @@
+package com.example.orders_exercise.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gradient-style concurrency limit. A slow moving average of request latency serves as the
+ * no-load baseline; when recent samples run slower than the baseline the limit shrinks in
+ * proportion, and when they match it the limit grows by roughly its square root.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+    private static final int BASELINE_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final Lock sampleLock = new ReentrantLock();
+
+    private volatile double limit;
+    private double baselineRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, boolean failed) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (failed || rttNanos <= 0) {
+            return;
+        }
+        sampleLock.lock();
+        try {
+            if (baselineRttNanos == 0) {
+                baselineRttNanos = rttNanos;
+            } else {
+                baselineRttNanos += (rttNanos - baselineRttNanos) / BASELINE_WINDOW;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRttNanos / rttNanos));
+            double current = limit;
+            double target = current * gradient + Math.sqrt(current);
+            // Without load on the current limit a fast sample says nothing about a higher one
+            if (inFlightAtRelease < current / 2) {
+                target = Math.min(target, current);
+            }
+            double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.orders_exercise.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ConcurrencyLimits {
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimits(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimiter limiter(String endpointClass) {
+        return limiters.computeIfAbsent(endpointClass, this::createLimiter);
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return new TreeMap<>(limiters);
+    }
+
+    public int retryAfterSeconds(String endpointClass) {
+        return property(endpointClass, "retry-after-seconds", 1);
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String endpointClass) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                property(endpointClass, "initial", 10),
+                property(endpointClass, "min", 1),
+                property(endpointClass, "max", 50)
+        );
+        Gauge.builder("orders.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        Gauge.builder("orders.limiter.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently holding a permit")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .description("Requests shed because the limit was reached")
+                .tag("endpoint", endpointClass)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private int property(String endpointClass, String name, int defaultValue) {
+        Integer specific = environment.getProperty("orders.limits." + endpointClass + "." + name, Integer.class);
+        return specific != null ? specific : environment.getProperty("orders.limits.default." + name, Integer.class, defaultValue);
+    }
+}
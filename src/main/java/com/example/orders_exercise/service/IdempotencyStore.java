@@ -0,0 +1,105 @@
+package com.example.orders_exercise.service;
+
+import com.example.orders_exercise.exception.IdempotencyKeyReusedException;
+import com.example.orders_exercise.exception.ValidationException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} for a while, so a retried create returns
+ * the original orders instead of inserting and publishing them again. Bounded by the number of
+ * orders held, and local to this instance.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private record Key(String scope, String key) {
+    }
+
+    private record Outcome(Object request, Object response) {
+
+        int weight() {
+            return response instanceof Collection<?> orders ? Math.max(1, orders.size()) : 1;
+        }
+    }
+
+    public record Execution<R>(R response, boolean replayed) {
+    }
+
+    private final AsyncCache<Key, Outcome> outcomes;
+
+    public IdempotencyStore(@Value("${orders.idempotency.max-orders:100000}") long maxOrders,
+                            @Value("${orders.idempotency.ttl-ms:600000}") long ttlMs,
+                            MeterRegistry meterRegistry) {
+        this.outcomes = Caffeine.newBuilder()
+                .maximumWeight(maxOrders)
+                .weigher((Key key, Outcome outcome) -> outcome.weight())
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes, "idempotencyKeys");
+    }
+
+    /**
+     * Runs the action once per key within the scope. A duplicate arriving while the first request
+     * is still running waits for its outcome; only that key is held, never the whole store. A failed
+     * action is not remembered, so the client can retry it with the same key.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Execution<R> execute(String scope, String key, Object request, Supplier<R> action) {
+        if (key == null) {
+            return new Execution<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(HEADER, "Must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        CompletableFuture<Outcome> running = new CompletableFuture<>();
+        CompletableFuture<Outcome> existing = outcomes.get(new Key(scope, key), (k, executor) -> running);
+        if (existing != running) {
+            Outcome outcome = await(existing);
+            if (!outcome.request().equals(request)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return new Execution<>((R) outcome.response(), true);
+        }
+        try {
+            R response = action.get();
+            running.complete(new Outcome(request, response));
+            return new Execution<>(response, false);
+        } catch (Throwable e) {
+            // Errors and sneaky checked exceptions too, or duplicates waiting on the key would hang
+            running.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Outcome await(CompletableFuture<Outcome> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.orders_exercise.service;
+
+import com.example.orders_exercise.entity.Order;
+import com.example.orders_exercise.entity.OrderStatus;
+import com.example.orders_exercise.repository.ArchivedOrderRepository;
+import com.example.orders_exercise.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves finished orders older than the hot window into {@code orders_archive} and purges
+ * archived orders past retention. Both run in small batches, each in its own transaction,
+ * so row locks are held only for one batch and concurrent movers skip each other's rows.
+ * A run does at most {@code orders.archive.max-batches-per-run} batches per shard and leaves
+ * the rest of a backlog to the next runs, so it never holds a scheduler thread for long.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiver {
+
+    static final Set<OrderStatus> ARCHIVABLE_STATUSES = EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderCache orderCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Counter archivedCounter;
+    private final Counter purgedCounter;
+
+    @Value("${orders.archive.hot-days:30}")
+    private int hotDays;
+
+    @Value("${orders.archive.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${orders.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.archive.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         ArchivedOrderRepository archivedOrderRepository,
+                         OrderCache orderCache,
+                         TransactionTemplate transactionTemplate,
+                         ShardRouter shardRouter,
+                         MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderCache = orderCache;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.archivedCounter = Counter.builder("orders.archive.moved")
+                .description("Orders moved to the archive table")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("orders.archive.purged")
+                .description("Archived orders deleted by retention")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.interval-ms:60000}",
+            initialDelayString = "${orders.archive.interval-ms:60000}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        int archived = archiveOlderThan(now.minusDays(hotDays));
+        int purged = retentionDays > 0 ? purgeOlderThan(now.minusDays(retentionDays)) : 0;
+        if (archived > 0 || purged > 0) {
+            log.info("Archived {} orders, purged {} archived orders", archived, purged);
+        }
+    }
+
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        for (int shard : shardRouter.shards()) {
+            total += shardRouter.onShard(shard, () -> inBatches(() -> archiveBatch(cutoff)));
+        }
+        return total;
+    }
+
+    public int purgeOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        for (int shard : shardRouter.shards()) {
+            total += shardRouter.onShard(shard, () -> inBatches(() -> purgeBatch(cutoff)));
+        }
+        return total;
+    }
+
+    private int inBatches(IntSupplier batch) {
+        int total = 0;
+        int batches = 0;
+        int done;
+        do {
+            done = transactionTemplate.execute(status -> batch.getAsInt());
+            total += done;
+        } while (done == batchSize && ++batches < maxBatchesPerRun);
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findArchivable(ARCHIVABLE_STATUSES, cutoff, Limit.of(batchSize))
+                .stream()
+                .map(Order::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        orderRepository.copyToArchive(ids);
+        orderRepository.deleteAllByIdInBatch(ids);
+        archivedCounter.increment(ids.size());
+        return ids.size();
+    }
+
+    private int purgeBatch(LocalDateTime cutoff) {
+        List<Long> ids = archivedOrderRepository.findIdsCreatedBefore(cutoff, Limit.of(batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.deleteAllByIdInBatch(ids);
+        orderCache.evictAfterCommit(ids);
+        purgedCounter.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.orders_exercise.service;
+
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.OrderSearchRequest;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class OrderCache {
+
+    private final AsyncCache<Long, OrderDto> orders;
+    private final Cache<Long, Boolean> missingOrders;
+    private final Cache<OrderSearchRequest, List<OrderDto>> searches;
+    private final int maxCachedSearchResults;
+
+    public OrderCache(@Value("${orders.cache.max-size:10000}") long maxSize,
+                      @Value("${orders.cache.ttl-ms:30000}") long ttlMs,
+                      @Value("${orders.cache.negative-ttl-ms:5000}") long negativeTtlMs,
+                      @Value("${orders.cache.search.max-size:100}") long maxSearches,
+                      @Value("${orders.cache.search.ttl-ms:5000}") long searchTtlMs,
+                      @Value("${orders.cache.search.max-results:1000}") int maxCachedSearchResults,
+                      MeterRegistry meterRegistry) {
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .buildAsync();
+        this.missingOrders = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(negativeTtlMs))
+                .recordStats()
+                .build();
+        this.searches = Caffeine.newBuilder()
+                .maximumSize(maxSearches)
+                .expireAfterWrite(Duration.ofMillis(searchTtlMs))
+                .recordStats()
+                .build();
+        this.maxCachedSearchResults = maxCachedSearchResults;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, "orders");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingOrders, "missingOrders");
+        CaffeineCacheMetrics.monitor(meterRegistry, searches, "orderSearches");
+    }
+
+    public Optional<OrderDto> getOrderById(Long id, Function<Long, Optional<OrderDto>> loader) {
+        if (missingOrders.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+        // Load on the calling thread rather than inside the cache's compute lock, so a blocking
+        // JDBC call never pins a virtual thread's carrier. Concurrent misses wait on the same future.
+        CompletableFuture<OrderDto> loading = new CompletableFuture<>();
+        CompletableFuture<OrderDto> cached = orders.get(id, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(loader.apply(id).orElse(null));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        OrderDto order = cached.join();
+        if (order == null) {
+            missingOrders.put(id, Boolean.TRUE);
+        }
+        return Optional.ofNullable(order);
+    }
+
+    public List<OrderDto> search(OrderSearchRequest request, Supplier<List<OrderDto>> loader) {
+        List<OrderDto> cached = searches.getIfPresent(request);
+        if (cached != null) {
+            return cached;
+        }
+        List<OrderDto> result = List.copyOf(loader.get());
+        if (result.size() <= maxCachedSearchResults) {
+            searches.put(request, result);
+        }
+        return result;
+    }
+
+    public void evict(Long id) {
+        evict(List.of(id));
+    }
+
+    public void evict(Collection<Long> ids) {
+        orders.synchronous().invalidateAll(ids);
+        missingOrders.invalidateAll(ids);
+        searches.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        orders.synchronous().invalidateAll();
+        missingOrders.invalidateAll();
+        searches.invalidateAll();
+    }
+
+    public void evictAfterCommit(Collection<Long> ids) {
+        evict(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        }
+    }
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("orders", orders.synchronous().stats());
+        stats.put("missingOrders", missingOrders.stats());
+        stats.put("searches", searches.stats());
+        return stats;
+    }
+}
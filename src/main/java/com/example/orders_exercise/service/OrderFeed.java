@@ -0,0 +1,197 @@
+package com.example.orders_exercise.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class OrderFeed {
+
+    public static final String ORDER_CREATED = "created";
+    public static final String ORDER_STATUS_CHANGED = "status-changed";
+    public static final String ORDER_DELETED = "deleted";
+
+    private static final FeedEvent HEARTBEAT = new FeedEvent(null, null);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ObjectMapper objectMapper;
+    // Writes to slow clients block, so they get their own pool rather than the shared task executor
+    private final ExecutorService executor;
+    private final Counter droppedSubscribers;
+
+    @Value("${orders.feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${orders.feed.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${orders.feed.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    public OrderFeed(ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     @Value("${orders.feed.writer-threads:8}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(writerThreads, task -> {
+            Thread thread = new Thread(task, "order-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedSubscribers = Counter.builder("orders.feed.dropped")
+                .description("Feed subscribers disconnected for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("orders.feed.subscribers", subscribers, Set::size)
+                .description("Connected order feed subscribers")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public void publish(String name, Object payload) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            broadcast(new FeedEvent(name, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot serialize {} feed event", name, e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${orders.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        broadcast(HEARTBEAT);
+    }
+
+    // A client that stops reading blocks its write; drop it rather than let it hold a writer thread
+    @Scheduled(fixedRateString = "${orders.feed.write-timeout-ms:5000}")
+    public void dropStalled() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isWritingSince(deadline)) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void broadcast(FeedEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(event)) {
+                subscriber.scheduleDrain();
+            } else {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            droppedSubscribers.increment();
+            subscriber.close();
+        }
+    }
+
+    private record FeedEvent(String name, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile Thread writer;
+        private volatile long writeStartedAt;
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<FeedEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private boolean isWritingSince(long deadline) {
+            return writer != null && writeStartedAt - deadline < 0;
+        }
+
+        // A blocked write holds the emitter's lock, so a writing subscriber is interrupted and completed by
+        // its writer; a write the container does not interrupt still ends at the container's write timeout
+        private void close() {
+            dropped = true;
+            Thread current = writer;
+            if (current != null) {
+                current.interrupt();
+            } else {
+                emitter.complete();
+            }
+        }
+
+        private void drain() {
+            writeStartedAt = System.nanoTime();
+            writer = Thread.currentThread();
+            try {
+                FeedEvent event;
+                while (subscribers.contains(this) && (event = queue.poll()) != null) {
+                    writeStartedAt = System.nanoTime();
+                    emitter.send(event == HEARTBEAT
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().name(event.name()).data(event.json()));
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                return;
+            } finally {
+                writer = null;
+                Thread.interrupted();
+                draining.set(false);
+                if (dropped) {
+                    emitter.complete();
+                }
+            }
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
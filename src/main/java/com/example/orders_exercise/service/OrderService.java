@@ -1,74 +1,481 @@
 package com.example.orders_exercise.service;
 
+import com.example.orders_exercise.dto.OrderCursor;
+import com.example.orders_exercise.dto.OrderDto;
+import com.example.orders_exercise.dto.OrderSearchRequest;
+import com.example.orders_exercise.dto.OrderTableVersion;
 import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.entity.ArchivedOrder;
 import com.example.orders_exercise.entity.Order;
 import com.example.orders_exercise.entity.OrderStatus;
 import com.example.orders_exercise.exception.OrderNotFoundException;
+import com.example.orders_exercise.exception.OrderStatusConflictException;
+import com.example.orders_exercise.exception.ValidationException;
+import com.example.orders_exercise.repository.ArchivedOrderRepository;
+import com.example.orders_exercise.repository.OrderDtoRepository;
+import com.example.orders_exercise.repository.OrderExportRepository;
 import com.example.orders_exercise.repository.OrderRepository;
 import com.example.orders_exercise.repository.OrderSpecification;
 import com.example.orders_exercise.service.kafka.OrderEventConsumer;
 import com.example.orders_exercise.service.kafka.OrderEventPublisher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "orders.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class OrderService {
+    private static final Comparator<OrderDto> KEYSET_ORDER =
+            Comparator.comparing(OrderDto::createdAt).thenComparing(OrderDto::id).reversed();
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderDtoRepository orderDtoRepository;
+    private final OrderExportRepository orderExportRepository;
     private final OrderEventPublisher eventPublisher;
     private final OrderEventConsumer orderEventConsumer;
+    private final EntityManager entityManager;
+    private final OrderCache orderCache;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int jdbcBatchSize;
+
+    @Value("${orders.archive.hot-days:30}")
+    private int hotDays;
+
+    @Value("${orders.status.max-update-attempts:3}")
+    private int maxStatusUpdateAttempts;
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Value("${orders.status.bulk-chunk-size:1000}")
+    private int statusUpdateChunkSize;
+
+    public List<OrderDto> getAllOrders() {
+        return mergeLists(shardRouter.scatter(shard -> mergeLists(List.of(
+                orderDtoRepository.findAll(Order.class, null),
+                orderDtoRepository.findAll(ArchivedOrder.class, null)
+        ))));
     }
 
-    public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+    // Changes with any row that getAllOrders would return, without sending the rows themselves. The
+    // aggregates still read every row of both tiers on each shard, so a 304 saves transfer, not the scans
+    public String getAllOrdersVersion() {
+        return shardRouter.scatter(shard -> List.of(
+                        orderRepository.fetchTableVersion(),
+                        archivedOrderRepository.fetchTableVersion()
+                )).stream()
+                .flatMap(List::stream)
+                .map(OrderTableVersion::tag)
+                .collect(Collectors.joining("."));
     }
 
-    public Optional<Order> getOrderFromQueue() {
-        OrderEvent event = orderEventConsumer.readLastOrderCreatedEvent("order.created");
-        if (event != null) {
-            return Optional.of(new Order(event.id(), event.createdAt(), event.status(), event.userId(), event.description()));
-        }
-        return Optional.empty();
+    public Window<OrderDto> getOrdersByUser(Long userId, OrderCursor cursor, int size) {
+        Specification<Order> spec = OrderSpecification.filterBy(null, null, userId, null, null, null);
+        Specification<ArchivedOrder> coldSpec = OrderSpecification.filterBy(null, null, userId, null, null, null);
+        int limit = pageSize(size);
+        return shardRouter.onShard(shardRouter.shardFor(userId), () -> mergeWindows(List.of(
+                orderDtoRepository.findWindow(Order.class, spec, cursor, limit),
+                orderDtoRepository.findWindow(ArchivedOrder.class, coldSpec, cursor, limit)
+        ), limit));
+    }
+
+    public Optional<OrderDto> getOrderById(Long id) {
+        return orderCache.getOrderById(id, this::findInAnyTier);
+    }
+
+    public Optional<OrderDto> getOrderFromQueue() {
+        return orderEventConsumer.getLatestOrderCreatedEvent().map(this::toDto);
+    }
+
+    public Optional<OrderDto> getOrderFromQueue(int partition) {
+        return orderEventConsumer.getLatestOrderCreatedEvent(partition).map(this::toDto);
+    }
+
+    public Optional<OrderDto> getOrderFromQueueById(Long id) {
+        return orderEventConsumer.getRecentOrderCreatedEvent(id).map(this::toDto);
     }
 
     public Order saveOrder(Order order) {
-        order.setCreatedAt(LocalDateTime.now());
-        order.setStatus(OrderStatus.NEW);
-        Order saved = orderRepository.save(order);
-        eventPublisher.publishOrderCreated(saved);
-        return saved;
+        return shardRouter.inTransaction(shardRouter.shardFor(order.getUserId()), () -> {
+            order.setCreatedAt(LocalDateTime.now());
+            order.setStatus(OrderStatus.NEW);
+            Order saved = orderRepository.save(order);
+            eventPublisher.publishOrderCreated(saved);
+            orderCache.evictAfterCommit(List.of(saved.getId()));
+            return saved;
+        });
     }
 
-    public List<Order> searchOrders(Long id, OrderStatus status, Long userId, 
+    // Atomic per shard: a batch spanning several shards commits one transaction per shard
+    public List<Order> saveOrders(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, List<Order>> byShard = new TreeMap<>();
+        for (Order order : orders) {
+            byShard.computeIfAbsent(shardRouter.shardFor(order.getUserId()), shard -> new ArrayList<>()).add(order);
+        }
+        byShard.forEach((shard, shardOrders) -> shardRouter.inTransaction(shard, () -> {
+            for (int i = 0; i < shardOrders.size(); i++) {
+                Order order = shardOrders.get(i);
+                order.setCreatedAt(now);
+                order.setStatus(OrderStatus.NEW);
+                entityManager.persist(order);
+                if ((i + 1) % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            eventPublisher.publishOrdersCreated(shardOrders);
+            orderCache.evictAfterCommit(shardOrders.stream().map(Order::getId).toList());
+            return null;
+        }));
+        return orders;
+    }
+
+    public List<OrderDto> searchOrders(Long id, OrderStatus status, Long userId, 
                                    String description, LocalDateTime startDate, 
                                    LocalDateTime endDate) {
         Specification<Order> spec = OrderSpecification.filterBy(
             id, status, userId, description, startDate, endDate
         );
-        return orderRepository.findAll(spec);
+        OrderSearchRequest key = new OrderSearchRequest(id, status, userId, description, startDate, endDate);
+        return searchTimer("list", id, status, userId, description, startDate, endDate)
+                .record(() -> orderCache.search(key, () -> mergeLists(shardRouter.scatter(shardRouter.shardsFor(userId), shard -> {
+                    List<OrderDto> orders = orderDtoRepository.findAll(Order.class, spec);
+                    if ((id != null && !orders.isEmpty()) || !needsColdTier(status, startDate)) {
+                        return orders;
+                    }
+                    List<OrderDto> merged = new ArrayList<>(orders);
+                    merged.addAll(orderDtoRepository.findAll(ArchivedOrder.class, OrderSpecification.filterBy(
+                            id, status, userId, description, startDate, endDate
+                    )));
+                    return merged;
+                }))));
+    }
+
+    public Window<OrderDto> searchOrders(Long id, OrderStatus status, Long userId,
+                                      String description, LocalDateTime startDate,
+                                      LocalDateTime endDate, OrderCursor cursor, int size) {
+        Specification<Order> spec = OrderSpecification.filterBy(
+            id, status, userId, description, startDate, endDate
+        );
+        int limit = pageSize(size);
+        Specification<ArchivedOrder> coldSpec = OrderSpecification.filterBy(
+            id, status, userId, description, startDate, endDate
+        );
+        return searchTimer("page", id, status, userId, description, startDate, endDate).record(() -> {
+            List<Window<OrderDto>> windows = new ArrayList<>();
+            shardRouter.scatter(shardRouter.shardsFor(userId), shard -> {
+                Window<OrderDto> hot = orderDtoRepository.findWindow(Order.class, spec, cursor, limit);
+                if ((id != null && !hot.isEmpty()) || !needsColdTier(status, startDate)) {
+                    return List.of(hot);
+                }
+                return List.of(hot, orderDtoRepository.findWindow(ArchivedOrder.class, coldSpec, cursor, limit));
+            }).forEach(windows::addAll);
+            return windows.size() == 1 ? windows.get(0) : mergeWindows(windows, limit);
+        });
+    }
+
+    public void streamOrders(Long id, OrderStatus status, Long userId,
+                             String description, LocalDateTime startDate,
+                             LocalDateTime endDate, Consumer<OrderDto> action) {
+        Specification<Order> spec = OrderSpecification.filterBy(
+            id, status, userId, description, startDate, endDate
+        );
+        Specification<ArchivedOrder> coldSpec = OrderSpecification.filterBy(
+            id, status, userId, description, startDate, endDate
+        );
+        boolean includeCold = needsColdTier(status, startDate);
+        List<Integer> shards = shardRouter.shardsFor(userId);
+        searchTimer("stream", id, status, userId, description, startDate, endDate).record(() -> {
+            if (shards.size() == 1) {
+                shardRouter.inReadOnlyTransaction(shards.get(0), () -> {
+                    try (Stream<OrderDto> hot = orderDtoRepository.stream(Order.class, spec);
+                         Stream<OrderDto> cold = includeCold
+                                 ? orderDtoRepository.stream(ArchivedOrder.class, coldSpec)
+                                 : Stream.empty()) {
+                        mergeSorted(List.of(hot.iterator(), cold.iterator()), action);
+                    }
+                    return null;
+                });
+                return;
+            }
+            // Holding a cursor open on every shard would pin one connection per shard for the whole
+            // response, so each shard is read page by page instead
+            List<Iterator<OrderDto>> sources = new ArrayList<>();
+            for (int shard : shards) {
+                sources.add(pages(shard, Order.class, spec));
+                if (includeCold) {
+                    sources.add(pages(shard, ArchivedOrder.class, coldSpec));
+                }
+            }
+            mergeSorted(sources, action);
+        });
+    }
+
+    public void exportOrders(Long id, OrderStatus status, Long userId,
+                             String description, LocalDateTime startDate,
+                             LocalDateTime endDate, RowCallbackHandler rowHandler) {
+        searchTimer("export", id, status, userId, description, startDate, endDate).record(() -> {
+            for (int shard : shardRouter.shardsFor(userId)) {
+                shardRouter.inReadOnlyTransaction(shard, () -> {
+                    orderExportRepository.forEachOrder(id, status, userId, description, startDate, endDate, rowHandler);
+                    if (needsColdTier(status, startDate)) {
+                        orderExportRepository.forEachArchivedOrder(id, status, userId, description, startDate, endDate, rowHandler);
+                    }
+                    return null;
+                });
+            }
+        });
     }
 
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new OrderNotFoundException(orderId));
+        return shardRouter.inTransaction(locate(orderId), () -> compareAndSetStatus(orderId, newStatus));
+    }
 
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(newStatus);
-        Order updated = orderRepository.save(order);
+    private Order compareAndSetStatus(Long orderId, OrderStatus newStatus) {
+        for (int attempt = 0; attempt < maxStatusUpdateAttempts; attempt++) {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> archivedOrderRepository.existsById(orderId)
+                            ? new OrderStatusConflictException("Order " + orderId + " is archived and can no longer change status")
+                            : new OrderNotFoundException(orderId));
 
-        eventPublisher.publishOrderStatusChanged(orderId, oldStatus, newStatus);
+            OrderStatus oldStatus = order.getStatus();
+            if (oldStatus == newStatus) {
+                return order;
+            }
+            if (!oldStatus.canTransitionTo(newStatus)) {
+                throw new OrderStatusConflictException(orderId, oldStatus, newStatus);
+            }
+            // Only the writer that still sees oldStatus wins, so the published transition is the one applied
+            if (orderRepository.compareAndSetStatus(orderId, oldStatus, newStatus) == 1) {
+                order.setStatus(newStatus);
+                order.setVersion(order.getVersion() + 1);
+                eventPublisher.publishOrderStatusChanged(orderId, oldStatus, newStatus);
+                orderCache.evictAfterCommit(List.of(orderId));
+                return order;
+            }
+        }
+        throw new OrderStatusConflictException("Order " + orderId + " is being updated concurrently, try again");
+    }
+
+    // Each shard moves its orders in its own transaction. A user's orders have no upper bound, so they
+    // move in chunks of bulk-chunk-size, one transaction each, rather than locking them all at once
+    public List<Long> updateOrderStatuses(Collection<Long> ids, Long userId, OrderStatus fromStatus, OrderStatus toStatus) {
+        if (!fromStatus.canTransitionTo(toStatus)) {
+            throw new OrderStatusConflictException(fromStatus, toStatus);
+        }
+        List<Long> updated = new ArrayList<>();
+        if (ids != null && !ids.isEmpty()) {
+            List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+            for (int shard : shardRouter.shards()) {
+                updated.addAll(shardRouter.inTransaction(shard,
+                        () -> moveStatuses(lockByIds(distinctIds, fromStatus), fromStatus, toStatus)));
+            }
+            return updated;
+        }
+        int shard = shardRouter.shardFor(userId);
+        List<Long> moved;
+        do {
+            moved = shardRouter.inTransaction(shard, () -> moveStatuses(
+                    orderRepository.lockIdsByUserIdAndStatus(userId, fromStatus.name(), statusUpdateChunkSize),
+                    fromStatus, toStatus));
+            updated.addAll(moved);
+        } while (moved.size() == statusUpdateChunkSize);
         return updated;
     }
 
+    private List<Long> lockByIds(List<Long> ids, OrderStatus fromStatus) {
+        List<Long> lockedIds = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += statusUpdateChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + statusUpdateChunkSize, ids.size()));
+            lockedIds.addAll(orderRepository.lockIdsByIdInAndStatus(chunk, fromStatus.name()));
+        }
+        return lockedIds;
+    }
+
+    // Locking the matching rows first pins the exact set the single UPDATE moves and the events describe
+    private List<Long> moveStatuses(List<Long> lockedIds, OrderStatus fromStatus, OrderStatus toStatus) {
+        for (int from = 0; from < lockedIds.size(); from += statusUpdateChunkSize) {
+            List<Long> chunk = lockedIds.subList(from, Math.min(from + statusUpdateChunkSize, lockedIds.size()));
+            orderRepository.compareAndSetStatus(chunk, fromStatus, toStatus);
+        }
+        if (!lockedIds.isEmpty()) {
+            eventPublisher.publishOrderStatusesChanged(lockedIds, fromStatus, toStatus);
+            orderCache.evictAfterCommit(lockedIds);
+        }
+        return lockedIds;
+    }
+
+    // The deleted event lets other instances evict the order and take it out of their statistics and views
     public void deleteOrder(Long id) {
-        orderRepository.deleteById(id);
+        shardRouter.scatter(shard -> shardRouter.inTransaction(shard, () -> {
+            orderRepository.findById(id).ifPresent(order -> {
+                orderRepository.delete(order);
+                eventPublisher.publishOrderDeleted(id, order.getUserId(), order.getStatus(), order.getCreatedAt());
+            });
+            archivedOrderRepository.findById(id).ifPresent(order -> {
+                archivedOrderRepository.delete(order);
+                eventPublisher.publishOrderDeleted(id, order.getUserId(), order.getStatus(), order.getCreatedAt());
+            });
+            return null;
+        }));
+        orderCache.evict(id);
+    }
+
+    public Map<String, CacheStats> getCacheStats() {
+        return orderCache.stats();
+    }
+
+    // Ids do not say which shard holds them, so lookups by id ask every shard
+    private Optional<OrderDto> findInAnyTier(Long id) {
+        return shardRouter.scatter(shard -> orderDtoRepository.findById(Order.class, id)
+                        .or(() -> orderDtoRepository.findById(ArchivedOrder.class, id)))
+                .stream()
+                .flatMap(Optional::stream)
+                .findFirst();
+    }
+
+    private int locate(Long id) {
+        if (!shardRouter.isSharded()) {
+            return 0;
+        }
+        List<Boolean> found = shardRouter.scatter(shard -> orderRepository.existsById(id) || archivedOrderRepository.existsById(id));
+        int shard = found.indexOf(Boolean.TRUE);
+        if (shard < 0) {
+            throw new OrderNotFoundException(id);
+        }
+        return shard;
+    }
+
+    // Only finished orders created before the hot window can have been archived. Without a start date,
+    // a search that may match finished orders also runs on orders_archive: one extra query per shard,
+    // served by its (createdAt, id) and userId indexes, but a description-only search scans the archive
+    private boolean needsColdTier(OrderStatus status, LocalDateTime startDate) {
+        if (status != null && !OrderArchiver.ARCHIVABLE_STATUSES.contains(status)) {
+            return false;
+        }
+        return startDate == null || startDate.isBefore(LocalDateTime.now().minusDays(hotDays));
+    }
+
+    private static List<OrderDto> mergeLists(List<List<OrderDto>> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        List<OrderDto> merged = new ArrayList<>();
+        lists.forEach(merged::addAll);
+        merged.sort(KEYSET_ORDER);
+        return merged;
+    }
+
+    private Window<OrderDto> mergeWindows(List<Window<OrderDto>> windows, int limit) {
+        List<OrderDto> merged = new ArrayList<>();
+        boolean hasNext = false;
+        for (Window<OrderDto> window : windows) {
+            merged.addAll(window.getContent());
+            hasNext |= window.hasNext();
+        }
+        merged.sort(KEYSET_ORDER);
+        hasNext |= merged.size() > limit;
+        List<OrderDto> page = merged.size() > limit ? merged.subList(0, limit) : merged;
+        return Window.from(page, i -> OrderCursor.toScrollPosition(OrderCursor.of(page.get(i))), hasNext);
+    }
+
+    private static void mergeSorted(List<Iterator<OrderDto>> sources, Consumer<OrderDto> action) {
+        record Head(OrderDto order, Iterator<OrderDto> source) {}
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparing(Head::order, KEYSET_ORDER));
+        for (Iterator<OrderDto> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            action.accept(head.order());
+            if (head.source().hasNext()) {
+                heads.add(new Head(head.source().next(), head.source()));
+            }
+        }
+    }
+
+    private <T> Iterator<OrderDto> pages(int shard, Class<T> type, Specification<T> spec) {
+        return new Iterator<>() {
+            private Iterator<OrderDto> page = Collections.emptyIterator();
+            private OrderCursor cursor;
+            private boolean hasNextPage = true;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && hasNextPage) {
+                    Window<OrderDto> window = shardRouter.onShard(shard,
+                            () -> orderDtoRepository.findWindow(type, spec, cursor, maxPageSize));
+                    hasNextPage = window.hasNext() && !window.isEmpty();
+                    if (!window.isEmpty()) {
+                        cursor = OrderCursor.of(window.getContent().get(window.size() - 1));
+                    }
+                    page = window.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public OrderDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+    }
+
+    private Timer searchTimer(String mode, Long id, OrderStatus status, Long userId,
+                              String description, LocalDateTime startDate, LocalDateTime endDate) {
+        return Timer.builder("orders.search")
+                .description("Order search latency by filter shape")
+                .tag("mode", mode)
+                .tag("filter", OrderSpecification.filterShape(id, status, userId, description, startDate, endDate))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private OrderDto toDto(OrderEvent event) {
+        return new OrderDto(event.id(), event.createdAt(), event.status(), event.userId(), event.description());
+    }
+
+    private int pageSize(int requested) {
+        if (requested < 1) {
+            throw new ValidationException("size", "Page size must be positive");
+        }
+        return Math.min(requested, maxPageSize);
     }
 }
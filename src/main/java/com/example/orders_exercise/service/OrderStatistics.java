@@ -0,0 +1,144 @@
+package com.example.orders_exercise.service;
+
+import com.example.orders_exercise.dto.OrderBucketCountDto;
+import com.example.orders_exercise.dto.OrderStatsDto;
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.OrderStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order counters folded from the order event topics. Updates are commutative increments,
+ * and a deleted order is subtracted with the status it had when deleted, so replaying the
+ * topics from the beginning rebuilds the same totals regardless of how their records interleave.
+ * <p>
+ * The counters are rebuilt from the earliest retained records on every start. Orders whose
+ * created event has already expired from the topic are missing from the totals, and their later
+ * status changes decrement a status they were never counted in. Status counts are therefore
+ * clamped at zero when read: after retention has expired records they undercount, but they
+ * never go negative.
+ */
+@Service
+public class OrderStatistics {
+
+    public enum Bucket {
+        MINUTE(ChronoUnit.MINUTES, 24 * 60),
+        HOUR(ChronoUnit.HOURS, 90 * 24),
+        DAY(ChronoUnit.DAYS, 10 * 365);
+
+        private final ChronoUnit unit;
+        private final int retained;
+
+        Bucket(ChronoUnit unit, int retained) {
+            this.unit = unit;
+            this.retained = retained;
+        }
+
+        public LocalDateTime start(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    private final Map<OrderStatus, LongAdder> byStatus = new EnumMap<>(OrderStatus.class);
+    private final Map<Long, LongAdder> byUser = new ConcurrentHashMap<>();
+    private final Map<Bucket, ConcurrentSkipListMap<LocalDateTime, LongAdder>> byBucket = new EnumMap<>(Bucket.class);
+
+    public OrderStatistics() {
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status, new LongAdder());
+        }
+        for (Bucket bucket : Bucket.values()) {
+            byBucket.put(bucket, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    public void recordCreated(OrderEvent event) {
+        byStatus.get(event.status() != null ? event.status() : OrderStatus.NEW).increment();
+        if (event.userId() != null) {
+            byUser.computeIfAbsent(event.userId(), id -> new LongAdder()).increment();
+        }
+        if (event.createdAt() != null) {
+            for (Bucket bucket : Bucket.values()) {
+                countInBucket(bucket, event.createdAt(), 1);
+            }
+        }
+    }
+
+    public void recordDeleted(OrderDeletedEvent event) {
+        if (event.status() != null) {
+            byStatus.get(event.status()).decrement();
+        }
+        if (event.userId() != null) {
+            byUser.computeIfAbsent(event.userId(), id -> new LongAdder()).decrement();
+        }
+        if (event.createdAt() != null) {
+            for (Bucket bucket : Bucket.values()) {
+                countInBucket(bucket, event.createdAt(), -1);
+            }
+        }
+    }
+
+    public void recordStatusChanged(OrderStatusChangedEvent event) {
+        if (event.newStatus() == null || event.oldStatus() == event.newStatus()) {
+            return;
+        }
+        if (event.oldStatus() != null) {
+            byStatus.get(event.oldStatus()).decrement();
+        }
+        byStatus.get(event.newStatus()).increment();
+    }
+
+    public OrderStatsDto getStats() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        long total = 0;
+        for (Map.Entry<OrderStatus, LongAdder> entry : byStatus.entrySet()) {
+            // Raw sums stay unclamped so that replay order cannot change the result
+            long count = Math.max(0, entry.getValue().sum());
+            counts.put(entry.getKey(), count);
+            total += count;
+        }
+        return new OrderStatsDto(total, counts);
+    }
+
+    public long getUserOrderCount(Long userId) {
+        LongAdder count = byUser.get(userId);
+        return count == null ? 0 : Math.max(0, count.sum());
+    }
+
+    public List<OrderBucketCountDto> getTimeline(Bucket bucket, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, LongAdder> buckets = byBucket.get(bucket);
+        if (from != null && to != null) {
+            buckets = buckets.subMap(bucket.start(from), true, to, false);
+        } else if (from != null) {
+            buckets = buckets.tailMap(bucket.start(from), true);
+        } else if (to != null) {
+            buckets = buckets.headMap(to, false);
+        }
+        List<OrderBucketCountDto> timeline = new ArrayList<>();
+        buckets.forEach((start, count) -> timeline.add(new OrderBucketCountDto(start, Math.max(0, count.sum()))));
+        return timeline;
+    }
+
+    private void countInBucket(Bucket bucket, LocalDateTime createdAt, long delta) {
+        ConcurrentSkipListMap<LocalDateTime, LongAdder> buckets = byBucket.get(bucket);
+        LocalDateTime start = bucket.start(createdAt);
+        LongAdder count = buckets.get(start);
+        if (count == null) {
+            count = buckets.computeIfAbsent(start, key -> new LongAdder());
+            buckets.headMap(start.minus(bucket.retained, bucket.unit)).clear();
+        }
+        count.add(delta);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.orders_exercise.service;
+
+import com.example.orders_exercise.config.ShardRoutingDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Places orders on a shard by user id and runs work against one or all shards. Without
+ * {@code orders.shards.additional} datasources there is a single shard and everything runs
+ * inline on the calling thread.
+ */
+@Service
+public class ShardRouter {
+
+    private final int shardCount;
+    private final List<Integer> shards;
+    private final TransactionTemplate transactions;
+    private final TransactionTemplate readOnlyTransactions;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(ObjectProvider<ShardRoutingDataSource> routingDataSource,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${orders.shards.scatter-threads:16}") int scatterThreads) {
+        ShardRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        this.shardCount = dataSource == null ? 1 : dataSource.shardCount();
+        this.shards = IntStream.range(0, shardCount).boxed().toList();
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactions = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactions.setReadOnly(true);
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterExecutor = shardCount == 1 ? null : Executors.newFixedThreadPool(scatterThreads, task -> {
+            Thread thread = new Thread(task, "order-shards-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public List<Integer> shards() {
+        return shards;
+    }
+
+    public int shardFor(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), shardCount);
+    }
+
+    /**
+     * The shard of the user, or every shard when the user is not known.
+     */
+    public List<Integer> shardsFor(Long userId) {
+        return userId == null ? shards : List.of(shardFor(userId));
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer bound = ShardRoutingDataSource.currentShard();
+        if (isSharded() && TransactionSynchronizationManager.isActualTransactionActive()
+                && (bound == null ? 0 : bound) != shard) {
+            throw new IllegalStateException("Cannot switch to shard " + shard + " inside a transaction on another shard");
+        }
+        return ShardRoutingDataSource.withShard(shard, work);
+    }
+
+    public void forEachShard(IntConsumer work) {
+        for (int shard : shards) {
+            onShard(shard, () -> {
+                work.accept(shard);
+                return null;
+            });
+        }
+    }
+
+    public <T> T inTransaction(int shard, Supplier<T> work) {
+        return onShard(shard, () -> transactions.execute(status -> work.get()));
+    }
+
+    public <T> T inReadOnlyTransaction(int shard, Supplier<T> work) {
+        return onShard(shard, () -> readOnlyTransactions.execute(status -> work.get()));
+    }
+
+    /**
+     * Runs the work on each of the given shards in parallel and returns the results in shard order.
+     * A single shard runs on the calling thread.
+     */
+    public <T> List<T> scatter(Collection<Integer> targets, IntFunction<T> work) {
+        if (targets.size() == 1) {
+            int shard = targets.iterator().next();
+            return List.of(onShard(shard, () -> work.apply(shard)));
+        }
+        List<Future<T>> futures = new ArrayList<>(targets.size());
+        for (int shard : targets) {
+            futures.add(scatterExecutor.submit(() -> ShardRoutingDataSource.withShard(shard, () -> work.apply(shard))));
+        }
+        List<T> results = new ArrayList<>(targets.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    public <T> List<T> scatter(IntFunction<T> work) {
+        return scatter(shards, work);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.orders_exercise.service.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class BinaryOrderEventDeserializer implements Deserializer<Object> {
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return data == null ? null : OrderEventCodec.decode(data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data != null && headers != null) {
+            OrderEventCodec.checkSchemaVersion(headers);
+        }
+        return deserialize(topic, data);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.orders_exercise.service.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class BinaryOrderEventSerializer implements Serializer<Object> {
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return data == null ? null : OrderEventCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        headers.remove(OrderEventCodec.SCHEMA_VERSION_HEADER);
+        headers.add(OrderEventCodec.SCHEMA_VERSION_HEADER, new byte[]{OrderEventCodec.SCHEMA_VERSION});
+        return serialize(topic, data);
+    }
+}
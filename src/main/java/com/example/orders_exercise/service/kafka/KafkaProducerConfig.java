@@ -19,13 +19,44 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${orders.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${orders.kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${orders.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${orders.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${orders.kafka.producer.buffer-memory:33554432}")
+    private long bufferMemory;
+
+    @Value("${orders.kafka.producer.max-block-ms:10000}")
+    private long maxBlockMs;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        if ("binary".equalsIgnoreCase(wireFormat)) {
+            config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryOrderEventSerializer.class);
+        } else {
+            config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+            config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        }
+
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
         return new DefaultKafkaProducerFactory<>(config);
     }
 
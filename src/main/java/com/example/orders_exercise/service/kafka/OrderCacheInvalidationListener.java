@@ -0,0 +1,32 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.service.OrderCache;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OrderCacheInvalidationListener {
+
+    private final OrderCache orderCache;
+
+    public OrderCacheInvalidationListener(OrderCache orderCache) {
+        this.orderCache = orderCache;
+    }
+
+    @KafkaListener(
+            id = "orderCacheInvalidation",
+            topics = {
+                    "${kafka.topic.order-created:order.created}",
+                    "${kafka.topic.order-status-changed:order.status.changed}",
+                    "${kafka.topic.order-deleted:order.deleted}"
+            },
+            groupId = "orders-cache-${random.uuid}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+    )
+    public void onOrderEvent(ConsumerRecord<String, byte[]> record) {
+        if (record.key() != null) {
+            orderCache.evict(Long.valueOf(record.key()));
+        }
+    }
+}
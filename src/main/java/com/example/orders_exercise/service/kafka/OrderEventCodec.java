@@ -0,0 +1,250 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.OrderStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of the order events.
+ * <p>
+ * Layout: event type byte, presence bitmask of the nullable fields, then the present fields in
+ * declaration order. Ids are zigzag varints, timestamps are UTC epoch seconds plus nanos, statuses
+ * are ordinals (so {@link OrderStatus} constants may only be appended) and strings are length-prefixed
+ * UTF-8. The schema version travels in the {@value #SCHEMA_VERSION_HEADER} record header, and records
+ * of any other version are rejected rather than read with this layout.
+ */
+public final class OrderEventCodec {
+
+    public static final String SCHEMA_VERSION_HEADER = "orders-schema-version";
+    public static final byte SCHEMA_VERSION = 1;
+
+    private static final byte ORDER_EVENT = 1;
+    private static final byte ORDER_STATUS_CHANGED_EVENT = 2;
+    private static final byte ORDER_DELETED_EVENT = 3;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private OrderEventCodec() {
+    }
+
+    public static boolean isBinary(Headers headers) {
+        return headers != null && headers.lastHeader(SCHEMA_VERSION_HEADER) != null;
+    }
+
+    public static byte[] encode(Object event) {
+        Writer out = new Writer();
+        if (event instanceof OrderEvent orderEvent) {
+            out.writeByte(ORDER_EVENT);
+            out.writeByte(presence(orderEvent.id(), orderEvent.createdAt(), orderEvent.status(), orderEvent.userId(), orderEvent.description()));
+            out.writeLong(orderEvent.id());
+            out.writeTimestamp(orderEvent.createdAt());
+            out.writeStatus(orderEvent.status());
+            out.writeLong(orderEvent.userId());
+            out.writeString(orderEvent.description());
+        } else if (event instanceof OrderStatusChangedEvent statusChangedEvent) {
+            out.writeByte(ORDER_STATUS_CHANGED_EVENT);
+            out.writeByte(presence(statusChangedEvent.orderId(), statusChangedEvent.oldStatus(), statusChangedEvent.newStatus(), statusChangedEvent.timestamp()));
+            out.writeLong(statusChangedEvent.orderId());
+            out.writeStatus(statusChangedEvent.oldStatus());
+            out.writeStatus(statusChangedEvent.newStatus());
+            out.writeTimestamp(statusChangedEvent.timestamp());
+        } else if (event instanceof OrderDeletedEvent deletedEvent) {
+            out.writeByte(ORDER_DELETED_EVENT);
+            out.writeByte(presence(deletedEvent.orderId(), deletedEvent.userId(), deletedEvent.status(), deletedEvent.createdAt(), deletedEvent.timestamp()));
+            out.writeLong(deletedEvent.orderId());
+            out.writeLong(deletedEvent.userId());
+            out.writeStatus(deletedEvent.status());
+            out.writeTimestamp(deletedEvent.createdAt());
+            out.writeTimestamp(deletedEvent.timestamp());
+        } else {
+            throw new SerializationException("Unsupported event type: " + (event == null ? null : event.getClass().getName()));
+        }
+        return out.toByteArray();
+    }
+
+    public static Object decode(byte[] data) {
+        Reader in = new Reader(data);
+        byte type = in.readByte();
+        int presence = in.readByte();
+        return switch (type) {
+            case ORDER_EVENT -> new OrderEvent(
+                    (presence & 1) != 0 ? in.readLong() : null,
+                    (presence & 2) != 0 ? in.readTimestamp() : null,
+                    (presence & 4) != 0 ? in.readStatus() : null,
+                    (presence & 8) != 0 ? in.readLong() : null,
+                    (presence & 16) != 0 ? in.readString() : null
+            );
+            case ORDER_STATUS_CHANGED_EVENT -> new OrderStatusChangedEvent(
+                    (presence & 1) != 0 ? in.readLong() : null,
+                    (presence & 2) != 0 ? in.readStatus() : null,
+                    (presence & 4) != 0 ? in.readStatus() : null,
+                    (presence & 8) != 0 ? in.readTimestamp() : null
+            );
+            case ORDER_DELETED_EVENT -> new OrderDeletedEvent(
+                    (presence & 1) != 0 ? in.readLong() : null,
+                    (presence & 2) != 0 ? in.readLong() : null,
+                    (presence & 4) != 0 ? in.readStatus() : null,
+                    (presence & 8) != 0 ? in.readTimestamp() : null,
+                    (presence & 16) != 0 ? in.readTimestamp() : null
+            );
+            default -> throw new SerializationException("Unknown event type: " + type);
+        };
+    }
+
+    public static <T> T decode(Headers headers, byte[] data, Class<T> type) {
+        checkSchemaVersion(headers);
+        return decode(data, type);
+    }
+
+    public static void checkSchemaVersion(Headers headers) {
+        Header header = headers.lastHeader(SCHEMA_VERSION_HEADER);
+        byte[] version = header == null ? null : header.value();
+        if (version == null || version.length != 1 || version[0] != SCHEMA_VERSION) {
+            throw new SerializationException("Unsupported " + SCHEMA_VERSION_HEADER + ": " + Arrays.toString(version));
+        }
+    }
+
+    public static <T> T decode(byte[] data, Class<T> type) {
+        Object event = decode(data);
+        if (!type.isInstance(event)) {
+            throw new SerializationException("Expected " + type.getSimpleName() + " but got " + event.getClass().getSimpleName());
+        }
+        return type.cast(event);
+    }
+
+    private static byte presence(Object... fields) {
+        int presence = 0;
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                presence |= 1 << i;
+            }
+        }
+        return (byte) presence;
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(Long value) {
+            if (value != null) {
+                writeVarLong((value << 1) ^ (value >> 63));
+            }
+        }
+
+        void writeTimestamp(LocalDateTime value) {
+            if (value != null) {
+                writeLong(value.toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(value.getNano());
+            }
+        }
+
+        void writeStatus(OrderStatus value) {
+            if (value != null) {
+                writeByte(value.ordinal());
+            }
+        }
+
+        void writeString(String value) {
+            if (value != null) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(bytes.length);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            if (data == null) {
+                throw new SerializationException("Cannot decode null payload");
+            }
+            this.data = data;
+        }
+
+        byte readByte() {
+            if (position >= data.length) {
+                throw new SerializationException("Truncated event payload");
+            }
+            return data[position++];
+        }
+
+        Long readLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        LocalDateTime readTimestamp() {
+            long epochSecond = readLong();
+            int nanos = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+
+        OrderStatus readStatus() {
+            int ordinal = readByte();
+            if (ordinal < 0 || ordinal >= STATUSES.length) {
+                throw new SerializationException("Unknown status ordinal: " + ordinal);
+            }
+            return STATUSES[ordinal];
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || position + length > data.length) {
+                throw new SerializationException("Truncated event payload");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+    }
+}
@@ -1,70 +1,157 @@
 package com.example.orders_exercise.service.kafka;
 
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
 import com.example.orders_exercise.dto.kafka.OrderEvent;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.kafka.clients.consumer.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.*;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
+@Slf4j
 @Service
-public class OrderEventConsumer {
+public class OrderEventConsumer implements ConsumerSeekAware {
+
+    private final OrderEventReader eventReader;
+    private final MeterRegistry meterRegistry;
+    private final int historySize;
+
+    private final AtomicReference<ReceivedEvent> latest = new AtomicReference<>();
+    private final Map<Integer, ReceivedEvent> latestByPartition = new ConcurrentHashMap<>();
+    private final Map<Long, OrderEvent> recentById;
+    // Deletes are read from their own topic and can arrive before the created event they cancel
+    private final Map<Long, Boolean> recentlyDeleted;
+    private final Lock viewLock = new ReentrantLock();
+
+    public OrderEventConsumer(OrderEventReader eventReader,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.kafka.view.history-size:1000}") int historySize) {
+        this.eventReader = eventReader;
+        this.meterRegistry = meterRegistry;
+        this.historySize = historySize;
+        this.recentById = boundedMap();
+        this.recentlyDeleted = boundedMap();
+    }
+
+    @KafkaListener(
+            id = "orderCreatedView",
+            topics = "${kafka.topic.order-created:order.created}",
+            groupId = "orders-latest-view-${random.uuid}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+    )
+    public void onOrderCreated(ConsumerRecord<String, byte[]> record) {
+        OrderEvent event;
+        try {
+            event = eventReader.read(record, OrderEvent.class);
+        } catch (IOException | SerializationException e) {
+            log.warn("Skipping unreadable order event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            consumedCounter(record.topic(), "failure").increment();
+            return;
+        }
+        consumedCounter(record.topic(), "success").increment();
 
-    @Value("${spring.kafka.bootstrap-servers}")
-    private String bootstrapServers;
+        ReceivedEvent received = new ReceivedEvent(event, record.partition(), record.offset(), record.timestamp());
+        viewLock.lock();
+        try {
+            if (event.id() != null && recentlyDeleted.containsKey(event.id())) {
+                return;
+            }
+            latestByPartition.put(record.partition(), received);
+            latest.accumulateAndGet(received, (current, next) ->
+                    current == null || next.timestamp() >= current.timestamp() ? next : current);
+            if (event.id() != null) {
+                recentById.put(event.id(), event);
+            }
+        } finally {
+            viewLock.unlock();
+        }
+    }
 
-    private final ObjectMapper objectMapper;
+    @KafkaListener(
+            id = "orderDeletedView",
+            topics = "${kafka.topic.order-deleted:order.deleted}",
+            groupId = "orders-latest-view-${random.uuid}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+    )
+    public void onOrderDeleted(ConsumerRecord<String, byte[]> record) {
+        OrderDeletedEvent event;
+        try {
+            event = eventReader.read(record, OrderDeletedEvent.class);
+        } catch (IOException | SerializationException e) {
+            log.warn("Skipping unreadable order event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            consumedCounter(record.topic(), "failure").increment();
+            return;
+        }
+        consumedCounter(record.topic(), "success").increment();
+        if (event.orderId() == null) {
+            return;
+        }
 
-    public OrderEventConsumer(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        viewLock.lock();
+        try {
+            recentlyDeleted.put(event.orderId(), Boolean.TRUE);
+            recentById.remove(event.orderId());
+            latestByPartition.values().removeIf(received -> event.orderId().equals(received.event().id()));
+            latest.updateAndGet(current -> current != null && event.orderId().equals(current.event().id()) ? null : current);
+        } finally {
+            viewLock.unlock();
+        }
     }
 
-    public OrderEvent readLastOrderCreatedEvent(String topicName) {
-        Properties props = new Properties();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringDeserializer");
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "last-message-reader-" + UUID.randomUUID());
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-
-        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
-            List<TopicPartition> partitions = new ArrayList<>();
-            consumer.partitionsFor(topicName).forEach(partitionInfo ->
-                    partitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()))
-            );
-
-            consumer.assign(partitions);
-            consumer.seekToEnd(partitions);
-
-            long maxOffset = -1;
-            TopicPartition targetPartition = null;
-
-            for (TopicPartition partition : partitions) {
-                long offset = consumer.position(partition) - 1;
-                if (offset >= 0 && offset > maxOffset) {
-                    maxOffset = offset;
-                    targetPartition = partition;
-                }
-            }
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().forEach(partition ->
+                callback.seekRelative(partition.topic(), partition.partition(), -historySize, false));
+    }
 
-            if (targetPartition != null && maxOffset >= 0) {
-                consumer.seek(targetPartition, maxOffset);
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(2));
+    public Optional<OrderEvent> getLatestOrderCreatedEvent() {
+        return Optional.ofNullable(latest.get()).map(ReceivedEvent::event);
+    }
 
-                for (ConsumerRecord<String, String> record : records) {
-                    System.out.println("DEBUG raw value: " + record.value());
-                    return objectMapper.readValue(record.value(), OrderEvent.class);
-                }
-            }
+    public Optional<OrderEvent> getLatestOrderCreatedEvent(int partition) {
+        return Optional.ofNullable(latestByPartition.get(partition)).map(ReceivedEvent::event);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    public Optional<OrderEvent> getRecentOrderCreatedEvent(Long orderId) {
+        viewLock.lock();
+        try {
+            return Optional.ofNullable(recentById.get(orderId));
+        } finally {
+            viewLock.unlock();
         }
+    }
 
-        return null;
+    private <V> Map<Long, V> boundedMap() {
+        return new LinkedHashMap<>(historySize, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > historySize;
+            }
+        };
     }
 
+    private Counter consumedCounter(String topic, String result) {
+        return Counter.builder("orders.kafka.consumed")
+                .description("Order events consumed into the latest-order view")
+                .tag("topic", topic)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record ReceivedEvent(OrderEvent event, int partition, long offset, long timestamp) {
+    }
 }
@@ -1,19 +1,28 @@
 package com.example.orders_exercise.service.kafka;
 
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
 import com.example.orders_exercise.dto.kafka.OrderEvent;
 import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
 import com.example.orders_exercise.entity.Order;
 import com.example.orders_exercise.entity.OrderStatus;
+import com.example.orders_exercise.entity.OutboxEvent;
+import com.example.orders_exercise.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class OrderEventPublisher {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
 
     @Value("${kafka.topic.order-created:order.created}")
     private String orderCreatedTopic;
@@ -21,19 +30,69 @@ public class OrderEventPublisher {
     @Value("${kafka.topic.order-status-changed:order.status.changed}")
     private String orderStatusChangedTopic;
 
-    public OrderEventPublisher(KafkaTemplate<String, Object> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    @Value("${kafka.topic.order-deleted:order.deleted}")
+    private String orderDeletedTopic;
+
+    public OrderEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderCreated(Order order) {
         OrderEvent event = new OrderEvent(order.getId(), order.getCreatedAt(), order.getStatus(), order.getUserId(), order.getDescription());
-        kafkaTemplate.send(orderCreatedTopic, event);
+        enqueue(orderCreatedTopic, order.getId(), event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrdersCreated(List<Order> orders) {
+        List<OutboxEvent> outboxEvents = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderEvent event = new OrderEvent(order.getId(), order.getCreatedAt(), order.getStatus(), order.getUserId(), order.getDescription());
+            outboxEvents.add(toOutboxEvent(orderCreatedTopic, order.getId(), event));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderStatusChanged(Long orderId, OrderStatus oldStatus, OrderStatus newStatus) {
         OrderStatusChangedEvent event = new OrderStatusChangedEvent(
                 orderId, oldStatus, newStatus, LocalDateTime.now()
         );
-        kafkaTemplate.send(orderStatusChangedTopic, event);
+        enqueue(orderStatusChangedTopic, orderId, event);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderStatusesChanged(List<Long> orderIds, OrderStatus oldStatus, OrderStatus newStatus) {
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<OutboxEvent> outboxEvents = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            OrderStatusChangedEvent event = new OrderStatusChangedEvent(orderId, oldStatus, newStatus, timestamp);
+            outboxEvents.add(toOutboxEvent(orderStatusChangedTopic, orderId, event));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishOrderDeleted(Long orderId, Long userId, OrderStatus status, LocalDateTime createdAt) {
+        OrderDeletedEvent event = new OrderDeletedEvent(orderId, userId, status, createdAt, LocalDateTime.now());
+        enqueue(orderDeletedTopic, orderId, event);
+    }
+
+    private void enqueue(String topic, Long orderId, Object event) {
+        outboxEventRepository.save(toOutboxEvent(topic, orderId, event));
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, Long orderId, Object event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(topic);
+        outboxEvent.setMessageKey(orderId != null ? orderId.toString() : null);
+        outboxEvent.setEventType(event.getClass().getSimpleName());
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event.getClass().getSimpleName(), e);
+        }
+        return outboxEvent;
     }
 }
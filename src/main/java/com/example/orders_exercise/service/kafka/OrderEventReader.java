@@ -0,0 +1,23 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+public class OrderEventReader {
+
+    private final ObjectMapper objectMapper;
+
+    public OrderEventReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> T read(ConsumerRecord<String, byte[]> record, Class<T> type) throws IOException {
+        return OrderEventCodec.isBinary(record.headers())
+                ? OrderEventCodec.decode(record.headers(), record.value(), type)
+                : objectMapper.readValue(record.value(), type);
+    }
+}
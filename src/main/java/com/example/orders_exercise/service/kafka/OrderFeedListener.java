@@ -0,0 +1,57 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.service.OrderFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+@Slf4j
+@Service
+public class OrderFeedListener {
+
+    private final OrderFeed orderFeed;
+    private final OrderEventReader eventReader;
+
+    @Value("${kafka.topic.order-created:order.created}")
+    private String orderCreatedTopic;
+
+    @Value("${kafka.topic.order-deleted:order.deleted}")
+    private String orderDeletedTopic;
+
+    public OrderFeedListener(OrderFeed orderFeed, OrderEventReader eventReader) {
+        this.orderFeed = orderFeed;
+        this.eventReader = eventReader;
+    }
+
+    @KafkaListener(
+            id = "orderFeed",
+            topics = {
+                    "${kafka.topic.order-created:order.created}",
+                    "${kafka.topic.order-status-changed:order.status.changed}",
+                    "${kafka.topic.order-deleted:order.deleted}"
+            },
+            groupId = "orders-feed-${random.uuid}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
+    )
+    public void onOrderEvent(ConsumerRecord<String, byte[]> record) {
+        try {
+            if (orderCreatedTopic.equals(record.topic())) {
+                orderFeed.publish(OrderFeed.ORDER_CREATED, eventReader.read(record, OrderEvent.class));
+            } else if (orderDeletedTopic.equals(record.topic())) {
+                orderFeed.publish(OrderFeed.ORDER_DELETED, eventReader.read(record, OrderDeletedEvent.class));
+            } else {
+                orderFeed.publish(OrderFeed.ORDER_STATUS_CHANGED, eventReader.read(record, OrderStatusChangedEvent.class));
+            }
+        } catch (IOException | SerializationException e) {
+            log.warn("Skipping unreadable order event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.OrderStatus;
+import com.example.orders_exercise.repository.ArchivedOrderRepository;
+import com.example.orders_exercise.repository.OrderRepository;
+import com.example.orders_exercise.service.OrderCache;
+import com.example.orders_exercise.service.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the orders table from the order event topics. Every partition of the three topics is
+ * read from the beginning up to the end offsets seen at start, spread over a fixed pool of
+ * consumers. Events are folded into the final state of each order in memory, deleted orders
+ * are dropped, and the result is bulk-inserted with JDBC batches.
+ */
+@Slf4j
+@Service
+public class OrderReplayService implements ApplicationRunner {
+
+    private static final String INSERT_ORDER =
+            "insert into orders (id, created_at, status, user_id, description) values (?, ?, ?, ?, ?)";
+
+    // Matches the allocationSize of orders_seq so the pooled optimizer starts above every replayed id
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+    private final OrderEventReader eventReader;
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderCache orderCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${kafka.topic.order-created:order.created}")
+    private String orderCreatedTopic;
+
+    @Value("${kafka.topic.order-status-changed:order.status.changed}")
+    private String orderStatusChangedTopic;
+
+    @Value("${kafka.topic.order-deleted:order.deleted}")
+    private String orderDeletedTopic;
+
+    @Value("${orders.replay.on-startup:false}")
+    private boolean replayOnStartup;
+
+    @Value("${orders.replay.threads:4}")
+    private int threads;
+
+    @Value("${orders.replay.poll-timeout-ms:500}")
+    private long pollTimeoutMs;
+
+    @Value("${orders.replay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.replay.progress-interval-ms:5000}")
+    private long progressIntervalMs;
+
+    public OrderReplayService(ConsumerFactory<?, ?> consumerFactory,
+                              OrderEventReader eventReader,
+                              OrderRepository orderRepository,
+                              ArchivedOrderRepository archivedOrderRepository,
+                              OrderCache orderCache,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ShardRouter shardRouter) {
+        this.consumerFactory = consumerFactory;
+        this.eventReader = eventReader;
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderCache = orderCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    public record ReplayResult(long records, long orders, long skipped, Duration elapsed) {
+        public double recordsPerSecond() {
+            return elapsed.isZero() ? records : records * 1000.0 / elapsed.toMillis();
+        }
+    }
+
+    private record FoldedOrder(OrderEvent created, OrderStatus status, boolean deleted) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (replayOnStartup) {
+            rebuild();
+        }
+    }
+
+    public ReplayResult rebuild() {
+        // Replayed rows would all land on shard 0, whoever their user is
+        if (shardRouter.isSharded()) {
+            throw new IllegalStateException("Replay is only supported without additional shards");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A replay is already running");
+        }
+        try {
+            if (orderRepository.count() > 0 || archivedOrderRepository.count() > 0) {
+                throw new IllegalStateException("Replay needs empty orders and orders_archive tables");
+            }
+            long started = System.nanoTime();
+            Map<Long, FoldedOrder> folded = new ConcurrentHashMap<>();
+            AtomicLong consumed = new AtomicLong();
+            AtomicLong skipped = new AtomicLong();
+            replayTopics(folded, consumed, skipped);
+
+            List<FoldedOrder> orders = folded.values().stream()
+                    .filter(OrderReplayService::isLoadable)
+                    .sorted(Comparator.comparing(order -> order.created().id()))
+                    .toList();
+            skipped.addAndGet(folded.size() - orders.size());
+            load(orders);
+            orderCache.invalidateAll();
+
+            ReplayResult result = new ReplayResult(consumed.get(), orders.size(), skipped.get(),
+                    Duration.ofNanos(System.nanoTime() - started));
+            log.info("Replay finished: {} records, {} orders loaded, {} skipped in {} ms ({} records/s)",
+                    result.records(), result.orders(), result.skipped(), result.elapsed().toMillis(),
+                    Math.round(result.recordsPerSecond()));
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void replayTopics(Map<Long, FoldedOrder> folded, AtomicLong consumed, AtomicLong skipped) {
+        List<TopicPartition> partitions;
+        Map<TopicPartition, Long> endOffsets;
+        long total;
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            partitions = new ArrayList<>();
+            for (String topic : List.of(orderCreatedTopic, orderStatusChangedTopic, orderDeletedTopic)) {
+                List<PartitionInfo> infos = consumer.partitionsFor(topic);
+                if (infos != null) {
+                    for (PartitionInfo info : infos) {
+                        partitions.add(new TopicPartition(info.topic(), info.partition()));
+                    }
+                }
+            }
+            endOffsets = consumer.endOffsets(partitions);
+            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            total = partitions.stream().mapToLong(tp -> endOffsets.get(tp) - beginningOffsets.get(tp)).sum();
+        }
+        log.info("Replaying {} records from {} partitions with {} consumers", total, partitions.size(), threads);
+
+        List<List<TopicPartition>> assignments = new ArrayList<>();
+        for (int i = 0; i < Math.min(threads, partitions.size()); i++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            assignments.get(i % assignments.size()).add(partitions.get(i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, assignments.size()));
+        try {
+            CompletableFuture<?>[] workers = assignments.stream()
+                    .map(assigned -> CompletableFuture.runAsync(
+                            () -> replayPartitions(assigned, endOffsets, folded, consumed, skipped), executor))
+                    .toArray(CompletableFuture[]::new);
+            awaitWithProgress(CompletableFuture.allOf(workers), consumed, total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitWithProgress(CompletableFuture<Void> replay, AtomicLong consumed, long total) {
+        long started = System.nanoTime();
+        while (true) {
+            try {
+                replay.get(progressIntervalMs, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                long done = consumed.get();
+                log.info("Replay progress: {}/{} records ({}%), {} records/s",
+                        done, total, total == 0 ? 100 : done * 100 / total, done * 1000 / elapsedMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Replay interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Replay failed", e.getCause());
+            }
+        }
+    }
+
+    private void replayPartitions(List<TopicPartition> partitions, Map<TopicPartition, Long> endOffsets,
+                                  Map<Long, FoldedOrder> folded, AtomicLong consumed, AtomicLong skipped) {
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            remaining.removeIf(tp -> consumer.position(tp) >= endOffsets.get(tp));
+            Duration pollTimeout = Duration.ofMillis(pollTimeoutMs);
+            while (!remaining.isEmpty()) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(pollTimeout);
+                for (TopicPartition partition : records.partitions()) {
+                    long end = endOffsets.get(partition);
+                    for (ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                        if (record.offset() < end) {
+                            fold(record, folded, skipped);
+                            consumed.incrementAndGet();
+                        }
+                    }
+                }
+                List<TopicPartition> finished = remaining.stream()
+                        .filter(tp -> consumer.position(tp) >= endOffsets.get(tp))
+                        .toList();
+                if (!finished.isEmpty()) {
+                    finished.forEach(remaining::remove);
+                    consumer.pause(finished);
+                }
+            }
+        }
+    }
+
+    private void fold(ConsumerRecord<String, byte[]> record, Map<Long, FoldedOrder> folded, AtomicLong skipped) {
+        try {
+            // Each order's events share a partition per topic, so per-key order within a topic is preserved
+            if (orderCreatedTopic.equals(record.topic())) {
+                OrderEvent event = eventReader.read(record, OrderEvent.class);
+                if (event.id() == null) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                folded.merge(event.id(), new FoldedOrder(event, null, false),
+                        (existing, incoming) -> new FoldedOrder(incoming.created(), existing.status(), existing.deleted()));
+            } else if (orderDeletedTopic.equals(record.topic())) {
+                // Deletion is final whichever topic is read first, since ids are never reused
+                OrderDeletedEvent event = eventReader.read(record, OrderDeletedEvent.class);
+                if (event.orderId() == null) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                folded.merge(event.orderId(), new FoldedOrder(null, null, true),
+                        (existing, incoming) -> new FoldedOrder(existing.created(), existing.status(), true));
+            } else {
+                OrderStatusChangedEvent event = eventReader.read(record, OrderStatusChangedEvent.class);
+                if (event.orderId() == null || event.newStatus() == null) {
+                    skipped.incrementAndGet();
+                    return;
+                }
+                folded.merge(event.orderId(), new FoldedOrder(null, event.newStatus(), false),
+                        (existing, incoming) -> new FoldedOrder(existing.created(), incoming.status(), existing.deleted()));
+            }
+        } catch (IOException | SerializationException e) {
+            log.warn("Skipping unreadable order event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            skipped.incrementAndGet();
+        }
+    }
+
+    private void load(List<FoldedOrder> orders) {
+        for (int from = 0; from < orders.size(); from += batchSize) {
+            List<FoldedOrder> batch = orders.subList(from, Math.min(from + batchSize, orders.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_ORDER, batch, batch.size(), (statement, order) -> {
+                        OrderEvent created = order.created();
+                        OrderStatus finalStatus = order.status() != null ? order.status()
+                                : created.status() != null ? created.status() : OrderStatus.NEW;
+                        statement.setLong(1, created.id());
+                        statement.setTimestamp(2, Timestamp.valueOf(created.createdAt()));
+                        statement.setString(3, finalStatus.name());
+                        statement.setLong(4, created.userId());
+                        statement.setString(5, created.description());
+                    }));
+        }
+        if (!orders.isEmpty()) {
+            long maxId = orders.get(orders.size() - 1).created().id();
+            jdbcTemplate.execute("alter sequence orders_seq restart with " + (maxId + ID_ALLOCATION_SIZE + 1));
+        }
+    }
+
+    private static boolean isLoadable(FoldedOrder order) {
+        OrderEvent created = order.created();
+        return !order.deleted() && created != null && created.createdAt() != null
+                && created.userId() != null && created.description() != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String, byte[]> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "5000");
+        return (Consumer<String, byte[]>) consumerFactory.createConsumer("orders-replay", null, null, overrides);
+    }
+}
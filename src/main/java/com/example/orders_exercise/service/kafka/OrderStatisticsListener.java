@@ -0,0 +1,61 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.service.OrderStatistics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+@Slf4j
+@Service
+public class OrderStatisticsListener {
+
+    private final OrderStatistics orderStatistics;
+    private final OrderEventReader eventReader;
+
+    @Value("${kafka.topic.order-created:order.created}")
+    private String orderCreatedTopic;
+
+    @Value("${kafka.topic.order-deleted:order.deleted}")
+    private String orderDeletedTopic;
+
+    public OrderStatisticsListener(OrderStatistics orderStatistics, OrderEventReader eventReader) {
+        this.orderStatistics = orderStatistics;
+        this.eventReader = eventReader;
+    }
+
+    // A fresh group per instance starting from the earliest offset rebuilds the counters on every start
+    @KafkaListener(
+            id = "orderStatistics",
+            topics = {
+                    "${kafka.topic.order-created:order.created}",
+                    "${kafka.topic.order-status-changed:order.status.changed}",
+                    "${kafka.topic.order-deleted:order.deleted}"
+            },
+            groupId = "orders-stats-${random.uuid}",
+            properties = {
+                    "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer",
+                    "auto.offset.reset=${orders.stats.auto-offset-reset:earliest}"
+            }
+    )
+    public void onOrderEvent(ConsumerRecord<String, byte[]> record) {
+        try {
+            if (orderCreatedTopic.equals(record.topic())) {
+                orderStatistics.recordCreated(eventReader.read(record, OrderEvent.class));
+            } else if (orderDeletedTopic.equals(record.topic())) {
+                orderStatistics.recordDeleted(eventReader.read(record, OrderDeletedEvent.class));
+            } else {
+                orderStatistics.recordStatusChanged(eventReader.read(record, OrderStatusChangedEvent.class));
+            }
+        } catch (IOException | SerializationException e) {
+            log.warn("Skipping unreadable order event at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.orders_exercise.service.kafka;
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent;
+import com.example.orders_exercise.dto.kafka.OrderEvent;
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent;
+import com.example.orders_exercise.entity.OutboxDeadLetter;
+import com.example.orders_exercise.entity.OutboxEvent;
+import com.example.orders_exercise.entity.OutboxRelayLease;
+import com.example.orders_exercise.repository.OutboxDeadLetterRepository;
+import com.example.orders_exercise.repository.OutboxEventRepository;
+import com.example.orders_exercise.repository.OutboxRelayLeaseRepository;
+import com.example.orders_exercise.service.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "orders.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+            OrderEvent.class.getSimpleName(), OrderEvent.class,
+            OrderStatusChangedEvent.class.getSimpleName(), OrderStatusChangedEvent.class,
+            OrderDeletedEvent.class.getSimpleName(), OrderDeletedEvent.class
+    );
+
+    private static final String LEASE = "outbox-relay";
+
+    private final String relayId = UUID.randomUUID().toString();
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+    private final OutboxRelayLeaseRepository outboxRelayLeaseRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxDeadLetterRepository outboxDeadLetterRepository,
+                       OutboxRelayLeaseRepository outboxRelayLeaseRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate,
+                       ShardRouter shardRouter,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+        this.outboxRelayLeaseRepository = outboxRelayLeaseRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("orders.outbox.depth", this, OutboxRelay::depth)
+                .description("Events waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    // Each shard has its own outbox; a user's events all sit in one of them, and only the relay holding
+    // the shard's lease sends them, so per-key order holds however many instances run
+    @Scheduled(fixedDelayString = "${orders.outbox.linger-ms:50}")
+    public void relay() {
+        shardRouter.forEachShard(shard -> {
+            int relayed;
+            do {
+                if (!acquireLease()) {
+                    return;
+                }
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        });
+    }
+
+    @PreDestroy
+    void releaseLeases() {
+        try {
+            shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status ->
+                    outboxRelayLeaseRepository.release(LEASE, relayId, LocalDateTime.now())));
+        } catch (DataAccessException e) {
+            log.warn("Could not release the outbox relay lease, another relay takes over once it expires", e);
+        }
+    }
+
+    // SKIP LOCKED alone would let two relays claim different events of one key and send them concurrently.
+    // The lease outlives a batch, like the claim, and is renewed before each one
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(Duration.ofMillis(2 * sendTimeoutMs));
+        try {
+            return transactionTemplate.execute(status -> {
+                if (outboxRelayLeaseRepository.acquire(LEASE, relayId, now, until) == 1) {
+                    return true;
+                }
+                if (outboxRelayLeaseRepository.existsById(LEASE)) {
+                    return false;
+                }
+                outboxRelayLeaseRepository.saveAndFlush(new OutboxRelayLease(LEASE, relayId, until));
+                return true;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another relay created the lease first
+            return false;
+        }
+    }
+
+    private double depth() {
+        return shardRouter.scatter(shard -> outboxEventRepository.count()).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    // Claims a batch in one short transaction, sends it without holding locks, then settles it in another
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxDeadLetter> deadLetters = new ArrayList<>();
+        List<OutboxEvent> sent = new ArrayList<>(batch.size());
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            Object event;
+            try {
+                event = decode(outboxEvent);
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Outbox event {} of type {} cannot be decoded, moving it to the dead-letter table",
+                        outboxEvent.getId(), outboxEvent.getEventType(), e);
+                deadLetters.add(toDeadLetter(outboxEvent, e));
+                continue;
+            }
+            sent.add(outboxEvent);
+            sends.add(send(outboxEvent, event));
+        }
+        kafkaTemplate.flush();
+
+        // Once an event fails, later events with the same key stay behind it, acked or not,
+        // so the retry publishes them in their original order
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        Set<String> failedKeys = new HashSet<>();
+        List<Long> settled = new ArrayList<>(batch.size());
+        List<Long> retried = new ArrayList<>();
+        for (int i = 0; i < sent.size(); i++) {
+            OutboxEvent outboxEvent = sent.get(i);
+            boolean delivered = awaitDelivery(outboxEvent, sends.get(i), deadline);
+            if (delivered && !failedKeys.contains(outboxEvent.getMessageKey())) {
+                settled.add(outboxEvent.getId());
+            } else {
+                if (outboxEvent.getMessageKey() != null) {
+                    failedKeys.add(outboxEvent.getMessageKey());
+                }
+                retried.add(outboxEvent.getId());
+            }
+        }
+        deadLetters.forEach(deadLetter -> settled.add(deadLetter.getId()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxDeadLetterRepository.saveAll(deadLetters);
+            outboxEventRepository.deleteAllByIdInBatch(settled);
+            if (!retried.isEmpty()) {
+                outboxEventRepository.release(retried);
+            }
+        });
+        return settled.size();
+    }
+
+    // The claim outlives the wait for acks, so no other relay picks the batch up while it is in flight
+    private List<OutboxEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findUnclaimed(now, Limit.of(batchSize));
+        LocalDateTime claimedUntil = now.plus(Duration.ofMillis(2 * sendTimeoutMs));
+        batch.forEach(outboxEvent -> outboxEvent.setClaimedUntil(claimedUntil));
+        return batch;
+    }
+
+    private Object decode(OutboxEvent outboxEvent) throws IOException {
+        Class<?> type = EVENT_TYPES.get(outboxEvent.getEventType());
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown event type " + outboxEvent.getEventType());
+        }
+        return objectMapper.readValue(outboxEvent.getPayload(), type);
+    }
+
+    private OutboxDeadLetter toDeadLetter(OutboxEvent outboxEvent, Exception cause) {
+        String error = String.valueOf(cause.getMessage());
+        return new OutboxDeadLetter(
+                outboxEvent.getId(),
+                outboxEvent.getTopic(),
+                outboxEvent.getMessageKey(),
+                outboxEvent.getEventType(),
+                outboxEvent.getPayload(),
+                outboxEvent.getCreatedAt(),
+                LocalDateTime.now(),
+                error.length() > 1000 ? error.substring(0, 1000) : error
+        );
+    }
+
+    // At most one batch is in flight; beyond that the producer blocks for up to max.block.ms once buffer.memory is full
+    private CompletableFuture<SendResult<String, Object>> send(OutboxEvent outboxEvent, Object event) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<SendResult<String, Object>> send;
+        try {
+            send = kafkaTemplate.send(outboxEvent.getTopic(), outboxEvent.getMessageKey(), event);
+        } catch (RuntimeException e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((result, ex) -> sample.stop(sendTimer(outboxEvent.getTopic(), ex == null)));
+    }
+
+    private Timer sendTimer(String topic, boolean delivered) {
+        return Timer.builder("orders.kafka.send")
+                .description("Latency from send to broker acknowledgement")
+                .tag("topic", topic)
+                .tag("result", delivered ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private boolean awaitDelivery(OutboxEvent outboxEvent, CompletableFuture<SendResult<String, Object>> send, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Outbox event {} to {} not delivered, will retry", outboxEvent.getId(), outboxEvent.getTopic(), e);
+            return false;
+        }
+    }
+}
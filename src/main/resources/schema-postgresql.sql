@@ -0,0 +1,20 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_orders_description_trgm ON orders USING gin (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_description_trgm ON orders_archive USING gin (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_status_created_at ON orders_archive (status, created_at);
+
+-- Orders and outbox events used to take IDENTITY ids. Move the pooled sequences past every existing id
+-- (plus one allocation block); they only ever move forward, so running this on each start is safe.
+-- Only ids inside the shard's own block of 2^44 count, the block orders_seq already points into, so a
+-- stray id from another block can never push the sequence into the ids of another shard.
+SELECT setval('orders_seq', m.max_id + 50)
+FROM (SELECT GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders
+                       WHERE id >= b.block_start AND id < b.block_start + 17592186044416),
+                      (SELECT COALESCE(MAX(id), 0) FROM orders_archive
+                       WHERE id >= b.block_start AND id < b.block_start + 17592186044416)) AS max_id
+      FROM (SELECT last_value / 17592186044416 * 17592186044416 AS block_start FROM orders_seq) b) m
+WHERE m.max_id + 50 > (SELECT last_value FROM orders_seq);
+SELECT setval('order_outbox_seq', m.max_id + 50)
+FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM order_outbox) m
+WHERE m.max_id + 50 > (SELECT last_value FROM order_outbox_seq);
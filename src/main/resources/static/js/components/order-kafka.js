@@ -123,6 +123,34 @@ export class OrderKafka extends LitElement {
     this.success = false;
   }
 
+  connectedCallback() {
+    super.connectedCallback();
+    this.unsubscribe = apiService.subscribeToOrderEvents({
+      onCreated: order => this.handleOrderCreated(order),
+      onDeleted: event => this.handleOrderDeleted(event)
+    });
+  }
+
+  disconnectedCallback() {
+    super.disconnectedCallback();
+    if (this.unsubscribe) {
+      this.unsubscribe();
+      this.unsubscribe = null;
+    }
+  }
+
+  handleOrderCreated(order) {
+    this.order = order;
+    this.error = null;
+  }
+
+  handleOrderDeleted({ orderId }) {
+    if (this.order?.id === orderId) {
+      this.order = null;
+      this.success = false;
+    }
+  }
+
   async getFromKafka() {
     try {
       this.loading = true;
@@ -176,7 +204,7 @@ export class OrderKafka extends LitElement {
     return html`
       <div>
         <h3>Orders from Kafka</h3>
-        <p>Click the button below to get the latest order from Kafka.</p>
+        <p>New orders appear here as they are published. Click the button below to fetch the latest order from Kafka.</p>
         <button @click=${() => this.getFromKafka()}>Get from Kafka</button>
         <button @click=${this.navigateToOrders}>View All Orders</button>
         <button @click=${this.navigateToCreateOrder}>Create New Order</button>
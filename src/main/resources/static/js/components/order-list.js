@@ -1,11 +1,21 @@
-import { LitElement, html, css } from 'lit';
+import { LitElement, html, css, unsafeCSS } from 'lit';
 import { apiService } from '../services/api-service.js';
 
+// Rows have a fixed height so the visible slice can be computed from the scroll offset alone
+export const ROW_HEIGHT = 48;
+export const PAGE_SIZE = 100;
+export const OVERSCAN = 10;
+export const VIEWPORT_HEIGHT = 600;
+export const SEARCH_DEBOUNCE_MS = 300;
+
 export class OrderList extends LitElement {
   static get properties() {
     return {
       orders: { type: Array },
       loading: { type: Boolean },
+      loadingMore: { type: Boolean },
+      nextCursor: { type: String },
+      scrollTop: { type: Number },
       error: { type: String },
       searchFilters: { type: Object },
       showFilters: { type: Boolean },
@@ -46,22 +56,44 @@ export class OrderList extends LitElement {
         background-color: var(--success-color, #28a745);
       }
 
+      .viewport {
+        max-height: ${unsafeCSS(VIEWPORT_HEIGHT)}px;
+        overflow-y: auto;
+      }
+
       .order-list {
         width: 100%;
         border-collapse: collapse;
+        table-layout: fixed;
       }
 
       .order-list th,
       .order-list td {
-        padding: 0.75rem;
+        padding: 0 0.75rem;
         border: 1px solid #ccc;
         text-align: left;
+        white-space: nowrap;
+        overflow: hidden;
+        text-overflow: ellipsis;
       }
 
       .order-list th {
+        position: sticky;
+        top: 0;
+        height: ${unsafeCSS(ROW_HEIGHT)}px;
         background-color: #f4f4f4;
       }
 
+      .order-list .spacer td {
+        padding: 0;
+        border: none;
+      }
+
+      .loading-more {
+        text-align: center;
+        color: var(--dark-color);
+      }
+
       .loading {
         display: flex;
         justify-content: center;
@@ -152,6 +184,9 @@ export class OrderList extends LitElement {
     super();
     this.orders = [];
     this.loading = true;
+    this.loadingMore = false;
+    this.nextCursor = null;
+    this.scrollTop = 0;
     this.error = null;
     this.searchFilters = {
       id: '',
@@ -164,29 +199,184 @@ export class OrderList extends LitElement {
     this.showFilters = false;
     this.validationErrors = {};
     this.debounceTimeout = null;
+    this.pageController = null;
   }
 
   connectedCallback() {
     super.connectedCallback();
     this.loadOrders();
+    this.unsubscribe = apiService.subscribeToOrderEvents({
+      onCreated: order => this.handleOrderCreated(order),
+      onStatusChanged: event => this.handleOrderStatusChanged(event),
+      onDeleted: event => this.handleOrderDeleted(event)
+    });
+  }
+
+  disconnectedCallback() {
+    super.disconnectedCallback();
+    this.cancelPageRequest();
+    if (this.debounceTimeout) {
+      clearTimeout(this.debounceTimeout);
+      this.debounceTimeout = null;
+    }
+    if (this.unsubscribe) {
+      this.unsubscribe();
+      this.unsubscribe = null;
+    }
+  }
+
+  hasActiveFilters() {
+    return Object.values(this.searchFilters).some(value => value !== '');
+  }
+
+  handleOrderCreated(order) {
+    // A filtered view is refreshed by the next search rather than guessed at here
+    if (this.hasActiveFilters() || this.orders.some(existing => existing.id === order.id)) {
+      return;
+    }
+    // Pages are newest first, so a new order goes on top
+    this.orders = [order, ...this.orders];
+  }
+
+  handleOrderStatusChanged({ orderId, newStatus }) {
+    const index = this.orders.findIndex(order => order.id === orderId);
+    if (index === -1 || this.orders[index].status === newStatus) {
+      return;
+    }
+    this.replaceOrder(index, { ...this.orders[index], status: newStatus });
+  }
+
+  handleOrderDeleted({ orderId }) {
+    if (this.orders.some(order => order.id === orderId)) {
+      this.orders = this.orders.filter(order => order.id !== orderId);
+    }
+  }
+
+  replaceOrder(index, updatedOrder) {
+    if (this.searchFilters.status && this.searchFilters.status !== updatedOrder.status) {
+      this.orders = [...this.orders.slice(0, index), ...this.orders.slice(index + 1)];
+      return;
+    }
+    const orders = [...this.orders];
+    orders[index] = updatedOrder;
+    this.orders = orders;
   }
 
   async loadOrders() {
+    this.error = null;
+    await this.loadFirstPage(null, 'Failed to load orders');
+  }
+
+  // Replaces the list with the first page, cancelling whatever page request is still running
+  async loadFirstPage(filters, failureMessage) {
+    const controller = this.startPageRequest();
     try {
       this.loading = true;
-      this.orders = await apiService.getOrders();
+      const page = await this.fetchPage(filters, null, controller.signal);
+      if (controller !== this.pageController) {
+        return;
+      }
+      this.orders = page.items || [];
+      this.nextCursor = page.nextCursor || null;
+      this.scrollTop = 0;
+      const viewport = this.renderRoot?.querySelector?.('.viewport');
+      if (viewport) {
+        viewport.scrollTop = 0;
+      }
     } catch (err) {
+      if (err.name === 'AbortError') {
+        return;
+      }
       console.error(err);
+      this.error = this.describeError(err, failureMessage);
+    } finally {
+      if (controller === this.pageController) {
+        this.pageController = null;
+        this.loading = false;
+      }
+    }
+  }
 
-      if (err.data && err.data.message) {
-        // Handle structured errors
-        this.error = `Error: ${err.data.message}`;
-      } else {
-        // Fallback to generic error message
-        this.error = `Failed to load orders: ${err.message}`;
+  async loadNextPage() {
+    if (!this.nextCursor || this.loadingMore || this.loading) {
+      return;
+    }
+    const filters = this.hasActiveFilters() ? this.buildFilters() : null;
+    const controller = this.startPageRequest();
+    try {
+      this.loadingMore = true;
+      const page = await this.fetchPage(filters, this.nextCursor, controller.signal);
+      if (controller !== this.pageController) {
+        return;
       }
+      // Rows that moved between pages since the last fetch must not show up twice
+      const loadedIds = new Set(this.orders.map(order => order.id));
+      const items = (page.items || []).filter(order => !loadedIds.has(order.id));
+      this.orders = [...this.orders, ...items];
+      this.nextCursor = page.nextCursor || null;
+    } catch (err) {
+      if (err.name === 'AbortError') {
+        return;
+      }
+      console.error(err);
+      this.error = this.describeError(err, 'Failed to load more orders');
     } finally {
+      if (controller === this.pageController) {
+        this.pageController = null;
+        this.loadingMore = false;
+      }
+    }
+  }
+
+  fetchPage(filters, cursor, signal) {
+    const options = { cursor, size: PAGE_SIZE, signal };
+    return filters
+      ? apiService.searchOrdersPage(filters, options)
+      : apiService.getOrdersPage(options);
+  }
+
+  startPageRequest() {
+    this.cancelPageRequest();
+    this.pageController = new AbortController();
+    return this.pageController;
+  }
+
+  cancelPageRequest() {
+    if (this.pageController) {
+      this.pageController.abort();
+      this.pageController = null;
       this.loading = false;
+      this.loadingMore = false;
+    }
+  }
+
+  describeError(err, failureMessage) {
+    if (err.data && err.data.validationErrors) {
+      // Handle structured validation errors
+      const errorMessages = Object.entries(err.data.validationErrors)
+        .map(([field, message]) => `${field}: ${message}`)
+        .join(', ');
+      return `Validation error: ${errorMessages}`;
+    }
+    if (err.data && err.data.message) {
+      // Handle other structured errors
+      return `Error: ${err.data.message}`;
+    }
+    // Fallback to generic error message
+    return `${failureMessage}: ${err.message}`;
+  }
+
+  visibleRange() {
+    const visibleRows = Math.ceil(VIEWPORT_HEIGHT / ROW_HEIGHT);
+    const start = Math.max(0, Math.floor(this.scrollTop / ROW_HEIGHT) - OVERSCAN);
+    const end = Math.min(this.orders.length, start + visibleRows + 2 * OVERSCAN);
+    return { start, end };
+  }
+
+  handleScroll(e) {
+    this.scrollTop = e.target.scrollTop;
+    if (this.visibleRange().end + OVERSCAN >= this.orders.length) {
+      this.loadNextPage();
     }
   }
 
@@ -205,40 +395,20 @@ export class OrderList extends LitElement {
       this.orders = this.orders.filter(order => order.id !== orderId);
     } catch (err) {
       console.error(err);
-
-      if (err.data && err.data.message) {
-        // Handle structured errors
-        this.error = `Error: ${err.data.message}`;
-      } else {
-        // Fallback to generic error message
-        this.error = `Failed to delete order: ${err.message}`;
-      }
+      this.error = this.describeError(err, 'Failed to delete order');
     }
   }
 
   async handleStatusChange(orderId, newStatus) {
     try {
       const updatedOrder = await apiService.updateOrderStatus(orderId, newStatus);
-      this.orders = this.orders.map(order => 
-        order.id === orderId ? updatedOrder : order
-      );
+      const index = this.orders.findIndex(order => order.id === orderId);
+      if (index !== -1) {
+        this.replaceOrder(index, updatedOrder);
+      }
     } catch (err) {
       console.error(err);
-
-      if (err.data && err.data.validationErrors) {
-        // Handle structured validation errors
-        const validationErrors = err.data.validationErrors;
-        const errorMessages = Object.entries(validationErrors)
-          .map(([field, message]) => `${field}: ${message}`)
-          .join(', ');
-        this.error = `Validation error: ${errorMessages}`;
-      } else if (err.data && err.data.message) {
-        // Handle other structured errors
-        this.error = `Error: ${err.data.message}`;
-      } else {
-        // Fallback to generic error message
-        this.error = `Failed to update order status: ${err.message}`;
-      }
+      this.error = this.describeError(err, 'Failed to update order status');
     }
   }
 
@@ -258,55 +428,39 @@ export class OrderList extends LitElement {
       clearTimeout(this.debounceTimeout);
     }
 
-    // Set a new timeout to call handleSearch after 300ms
+    // Set a new timeout to call handleSearch after the user stops typing
     this.debounceTimeout = setTimeout(() => {
+      this.debounceTimeout = null;
       this.handleSearch();
-    }, 300);
+    }, SEARCH_DEBOUNCE_MS);
   }
 
-  async handleSearch() {
-    try {
-      this.loading = true;
-      this.error = null;
-
-      // Prepare filters, removing empty values
-      const filters = Object.entries(this.searchFilters)
-        .reduce((acc, [key, value]) => {
-          if (value !== '') {
-            // Convert ID and userId to numbers if they're not empty
-            if ((key === 'id' || key === 'userId') && value !== '') {
-              acc[key] = parseInt(value, 10);
-            } else {
-              acc[key] = value;
-            }
+  buildFilters() {
+    // Prepare filters, removing empty values
+    return Object.entries(this.searchFilters)
+      .reduce((acc, [key, value]) => {
+        if (value !== '') {
+          // Convert ID and userId to numbers if they're not empty
+          if (key === 'id' || key === 'userId') {
+            acc[key] = parseInt(value, 10);
+          } else {
+            acc[key] = value;
           }
-          return acc;
-        }, {});
-
-      this.orders = await apiService.searchOrders(filters);
-    } catch (err) {
-      console.error(err);
+        }
+        return acc;
+      }, {});
+  }
 
-      if (err.data && err.data.validationErrors) {
-        // Handle structured validation errors
-        const validationErrors = err.data.validationErrors;
-        const errorMessages = Object.entries(validationErrors)
-          .map(([field, message]) => `${field}: ${message}`)
-          .join(', ');
-        this.error = `Validation error: ${errorMessages}`;
-      } else if (err.data && err.data.message) {
-        // Handle other structured errors
-        this.error = `Error: ${err.data.message}`;
-      } else {
-        // Fallback to generic error message
-        this.error = `Search failed: ${err.message}`;
-      }
-    } finally {
-      this.loading = false;
-    }
+  async handleSearch() {
+    this.error = null;
+    await this.loadFirstPage(this.buildFilters(), 'Search failed');
   }
 
   resetFilters() {
+    if (this.debounceTimeout) {
+      clearTimeout(this.debounceTimeout);
+      this.debounceTimeout = null;
+    }
     this.searchFilters = {
       id: '',
       status: '',
@@ -490,40 +644,54 @@ export class OrderList extends LitElement {
 
         ${this.renderFilters()}
 
-        <table class="order-list">
-          <thead>
-            <tr>
-              <th>ID</th>
-              <th>Created At</th>
-              <th>Status</th>
-              <th>User ID</th>
-              <th>Description</th>
-              <th>Actions</th>
-            </tr>
-          </thead>
-          <tbody>
-            ${this.orders.map(order => html`
+        <div class="viewport" @scroll=${this.handleScroll}>
+          <table class="order-list">
+            <thead>
               <tr>
-                <td>${order.id}</td>
-                <td>${new Date(order.createdAt).toLocaleString()}</td>
-                <td>
-                  <span class="status-badge status-${order.status}">
-                    ${order.status}
-                  </span>
-                </td>
-                <td>${order.userId}</td>
-                <td>${order.description}</td>
-                <td class="actions">
-                  ${this.renderStatusChangeButtons(order)}
-                  <button class="btn-danger" @click=${() => this.handleDelete(order.id)}>Delete</button>
-                </td>
+                <th>ID</th>
+                <th>Created At</th>
+                <th>Status</th>
+                <th>User ID</th>
+                <th>Description</th>
+                <th>Actions</th>
               </tr>
-            `)}
-          </tbody>
-        </table>
+            </thead>
+            <tbody>
+              ${this.renderRows()}
+            </tbody>
+          </table>
+        </div>
       </div>
     `;
   }
+
+  renderRows() {
+    const { start, end } = this.visibleRange();
+    return html`
+      <tr class="spacer" style="height: ${start * ROW_HEIGHT}px"><td colspan="6"></td></tr>
+      ${this.orders.slice(start, end).map(order => html`
+        <tr style="height: ${ROW_HEIGHT}px">
+          <td>${order.id}</td>
+          <td>${new Date(order.createdAt).toLocaleString()}</td>
+          <td>
+            <span class="status-badge status-${order.status}">
+              ${order.status}
+            </span>
+          </td>
+          <td>${order.userId}</td>
+          <td>${order.description}</td>
+          <td class="actions">
+            ${this.renderStatusChangeButtons(order)}
+            <button class="btn-danger" @click=${() => this.handleDelete(order.id)}>Delete</button>
+          </td>
+        </tr>
+      `)}
+      <tr class="spacer" style="height: ${(this.orders.length - end) * ROW_HEIGHT}px"><td colspan="6"></td></tr>
+      ${this.loadingMore ? html`
+        <tr style="height: ${ROW_HEIGHT}px"><td class="loading-more" colspan="6">Loading more orders...</td></tr>
+      ` : ''}
+    `;
+  }
 }
 
 customElements.define('order-list', OrderList);
@@ -1,20 +1,33 @@
 
+export const MAX_CACHED_RESPONSES = 50;
+
 export class ApiService {
   constructor(baseUrl = '/api') {
     this.baseUrl = baseUrl;
+    this.eventSource = null;
+    this.eventHandlers = new Set();
+    // Last body and ETag per GET url, so unchanged resources are revalidated instead of re-downloaded
+    this.etagCache = new Map();
   }
 
   async request(endpoint, options = {}) {
     const url = `${this.baseUrl}${endpoint}`;
+    const cacheable = !options.method || options.method === 'GET';
+    const cached = cacheable ? this.etagCache.get(url) : undefined;
 
     const headers = {
       'Content-Type': 'application/json',
+      ...(cached ? { 'If-None-Match': cached.etag } : {}),
       ...options.headers
     };
 
     try {
       const response = await fetch(url, { ...options, headers });
 
+      if (response.status === 304 && cached) {
+        return cached.data;
+      }
+
       if (!response.ok) {
         const errorData = await response.json();
         const error = new Error(`API error: ${response.status} ${response.statusText}`);
@@ -27,17 +40,39 @@ export class ApiService {
         return null;
       }
 
-      return await response.json();
+      const data = await response.json();
+      const etag = cacheable ? response.headers?.get('ETag') : null;
+      if (etag) {
+        this.rememberResponse(url, etag, data);
+      } else if (cached) {
+        this.etagCache.delete(url);
+      }
+      return data;
     } catch (error) {
-      console.error('API request failed:', error);
+      if (error.name !== 'AbortError') {
+        console.error('API request failed:', error);
+      }
       throw error;
     }
   }
 
+  rememberResponse(url, etag, data) {
+    // Re-inserting keeps the map in least recently stored order, so the first key is the one to drop
+    this.etagCache.delete(url);
+    this.etagCache.set(url, { etag, data });
+    if (this.etagCache.size > MAX_CACHED_RESPONSES) {
+      this.etagCache.delete(this.etagCache.keys().next().value);
+    }
+  }
+
   async getOrders() {
     return this.request('/orders');
   }
 
+  async getOrdersPage({ cursor, size, signal } = {}) {
+    return this.request(`/orders/page${this.pageQuery(cursor, size)}`, { signal });
+  }
+
   async getOrder(id) {
     return this.request(`/orders/${id}`);
   }
@@ -71,6 +106,26 @@ export class ApiService {
     });
   }
 
+  async searchOrdersPage(filters = {}, { cursor, size, signal } = {}) {
+    return this.request(`/orders/search/page${this.pageQuery(cursor, size)}`, {
+      method: 'POST',
+      body: JSON.stringify(filters),
+      signal
+    });
+  }
+
+  pageQuery(cursor, size) {
+    const params = new URLSearchParams();
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    if (size) {
+      params.set('size', size);
+    }
+    const query = params.toString();
+    return query ? `?${query}` : '';
+  }
+
   async deleteOrder(id) {
     return this.request(`/orders/${id}`, {
       method: 'DELETE'
@@ -80,6 +135,33 @@ export class ApiService {
   async getFromKafka() {
     return this.request('/orders/getFromKafka');
   }
+
+  subscribeToOrderEvents(handlers = {}) {
+    if (typeof EventSource === 'undefined') {
+      return () => {};
+    }
+
+    this.eventHandlers.add(handlers);
+    if (!this.eventSource) {
+      this.eventSource = new EventSource(`${this.baseUrl}/orders/stream`);
+      this.eventSource.addEventListener('created', event => this.dispatchOrderEvent('onCreated', event));
+      this.eventSource.addEventListener('status-changed', event => this.dispatchOrderEvent('onStatusChanged', event));
+      this.eventSource.addEventListener('deleted', event => this.dispatchOrderEvent('onDeleted', event));
+    }
+
+    return () => {
+      this.eventHandlers.delete(handlers);
+      if (this.eventHandlers.size === 0 && this.eventSource) {
+        this.eventSource.close();
+        this.eventSource = null;
+      }
+    };
+  }
+
+  dispatchOrderEvent(type, event) {
+    const payload = JSON.parse(event.data);
+    this.eventHandlers.forEach(handlers => handlers[type]?.(payload));
+  }
 }
 
 export const apiService = new ApiService();
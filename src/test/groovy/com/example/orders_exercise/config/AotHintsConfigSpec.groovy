@@ -0,0 +1,28 @@
+package com.example.orders_exercise.config
+
+import com.example.orders_exercise.entity.Order
+import com.example.orders_exercise.service.kafka.BinaryOrderEventSerializer
+import org.springframework.aot.hint.MemberCategory
+import org.springframework.aot.hint.RuntimeHints
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates
+import spock.lang.Specification
+
+class AotHintsConfigSpec extends Specification {
+
+    def hints = new RuntimeHints()
+
+    def "should register entities and Kafka serializers for reflection"() {
+        when: "the order hints are registered"
+        new AotHintsConfig.OrderRuntimeHints().registerHints(hints, getClass().classLoader)
+
+        then: "Hibernate can instantiate and populate entities"
+        RuntimeHintsPredicates.reflection().onType(Order)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS)
+                .test(hints)
+
+        and: "Kafka can create the configured serializers from their class names"
+        RuntimeHintsPredicates.reflection().onType(BinaryOrderEventSerializer)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .test(hints)
+    }
+}
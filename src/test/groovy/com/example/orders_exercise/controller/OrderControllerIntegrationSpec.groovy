@@ -2,9 +2,11 @@ package com.example.orders_exercise.controller
 
 import com.example.orders_exercise.dto.OrderDto
 import com.example.orders_exercise.dto.kafka.OrderEvent
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent
 import com.example.orders_exercise.entity.Order
 import com.example.orders_exercise.entity.OrderStatus
 import com.example.orders_exercise.repository.OrderRepository
+import com.example.orders_exercise.service.OrderFeed
 import com.fasterxml.jackson.databind.ObjectMapper
 import org.apache.kafka.clients.consumer.ConsumerConfig
 import org.apache.kafka.clients.consumer.KafkaConsumer
@@ -23,8 +25,10 @@ import org.testcontainers.containers.KafkaContainer
 import org.testcontainers.utility.DockerImageName
 import spock.lang.Shared
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import java.time.LocalDateTime
+import java.util.zip.GZIPInputStream
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*
@@ -43,6 +47,9 @@ class OrderControllerIntegrationSpec extends Specification {
     @Autowired
     private ObjectMapper objectMapper
 
+    @Autowired
+    private OrderFeed orderFeed
+
     @Shared
     static KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:latest"))
             .withReuse(true)
@@ -173,6 +180,74 @@ class OrderControllerIntegrationSpec extends Specification {
               .andExpect(jsonPath('$.timestamp').exists())
     }
 
+    def "should answer repeated reads of an order with 304 until it changes"() {
+        given: "an order that has been read once"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Tagged Order")
+        def savedOrder = orderRepository.save(order)
+        def etag = mockMvc.perform(get("/api/orders/{id}", savedOrder.id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.version').value(0))
+                .andReturn().response.getHeader("ETag")
+
+        when: "it is read again with its ETag"
+        def unchanged = mockMvc.perform(get("/api/orders/{id}", savedOrder.id).header("If-None-Match", etag))
+
+        then: "the response is 304 without a body"
+        unchanged.andExpect(status().isNotModified())
+        unchanged.andReturn().response.contentAsString.isEmpty()
+
+        when: "its status changes and it is read with the old ETag"
+        mockMvc.perform(patch("/api/orders/{id}/status", savedOrder.id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"status": "PROCESSING"}'))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.version').value(1))
+        def changed = mockMvc.perform(get("/api/orders/{id}", savedOrder.id).header("If-None-Match", etag))
+
+        then: "the new version is sent with a new ETag"
+        changed.andExpect(status().isOk())
+                .andExpect(jsonPath('$.status').value("PROCESSING"))
+                .andExpect(jsonPath('$.version').value(1))
+        changed.andReturn().response.getHeader("ETag") != etag
+    }
+
+    def "should answer repeated reads of all orders with 304 until an order is added or removed"() {
+        given: "the list of orders has been read once"
+        def first = new Order()
+        first.setUserId(1L)
+        first.setDescription("First")
+        orderRepository.save(first)
+        def etag = mockMvc.perform(get("/api/orders"))
+                .andExpect(status().isOk())
+                .andReturn().response.getHeader("ETag")
+
+        expect: "an unchanged table gives 304"
+        mockMvc.perform(get("/api/orders").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+
+        when: "an order is added"
+        def second = new Order()
+        second.setUserId(2L)
+        second.setDescription("Second")
+        orderRepository.save(second)
+        def afterInsert = mockMvc.perform(get("/api/orders").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.length()').value(2))
+                .andReturn().response.getHeader("ETag")
+
+        and: "an order is removed"
+        orderRepository.deleteById(first.id)
+        def afterDelete = mockMvc.perform(get("/api/orders").header("If-None-Match", afterInsert))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.length()').value(1))
+                .andReturn().response.getHeader("ETag")
+
+        then: "every change produced a new ETag"
+        [etag, afterInsert, afterDelete].toSet().size() == 3
+    }
+
     def "should return 400 when creating an order with invalid data"() {
         given: "invalid order request"
         def orderDto = new OrderDto(null, null, null, null, "")
@@ -222,6 +297,48 @@ class OrderControllerIntegrationSpec extends Specification {
               .andExpect(jsonPath('$.validationErrors.status').exists())
     }
 
+    def "should return 409 for a status transition outside the state machine"() {
+        given: "a completed order"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Test Order")
+        order.setStatus(OrderStatus.COMPLETED)
+        def savedOrder = orderRepository.save(order)
+
+        when: "it is moved back to NEW"
+        def result = mockMvc.perform(patch("/api/orders/{id}/status", savedOrder.id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"status": "NEW"}'))
+
+        then: "the request is rejected and the order is unchanged"
+        result.andExpect(status().isConflict())
+              .andExpect(jsonPath('$.error').value("Conflict"))
+        orderRepository.findById(savedOrder.id).get().status == OrderStatus.COMPLETED
+    }
+
+    def "should move all matching orders of a user in one request"() {
+        given: "a user with orders in several statuses"
+        def orders = [OrderStatus.PROCESSING, OrderStatus.PROCESSING, OrderStatus.NEW].collect { status ->
+            def order = new Order()
+            order.setUserId(5L)
+            order.setDescription("Order " + status)
+            order.setStatus(status)
+            order
+        }
+        orderRepository.saveAll(orders)
+
+        when: "all PROCESSING orders of the user are cancelled"
+        def result = mockMvc.perform(patch("/api/orders/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"userId": 5, "fromStatus": "PROCESSING", "toStatus": "CANCELLED"}'))
+
+        then: "only those orders are moved"
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath('$.updated').value(2))
+        orderRepository.findByUserIdOrderByCreatedAtDesc(5L)*.status.countBy { it } ==
+                [(OrderStatus.CANCELLED): 2, (OrderStatus.NEW): 1]
+    }
+
     def "should delete an order"() {
         given: "order exists in the database"
         def order = new Order()
@@ -238,4 +355,326 @@ class OrderControllerIntegrationSpec extends Specification {
         and: "order is removed from the database"
         !orderRepository.existsById(savedOrder.id)
     }
+
+    def "should page through orders with a keyset cursor"() {
+        given: "five orders exist in the database"
+        def now = LocalDateTime.now()
+        orderRepository.saveAll((1..5).collect { i ->
+            def order = new Order()
+            order.setUserId(1L)
+            order.setDescription("Order ${i}")
+            order.setStatus(OrderStatus.NEW)
+            order.setCreatedAt(now.plusSeconds(i))
+            order
+        })
+
+        when: "the first page is requested"
+        def firstPage = objectMapper.readValue(mockMvc.perform(get("/api/orders/page").param("size", "3"))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString, Map.class)
+
+        and: "the next page is requested with the returned cursor"
+        def secondPage = objectMapper.readValue(mockMvc.perform(get("/api/orders/page")
+                .param("size", "3")
+                .param("cursor", firstPage.nextCursor as String))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString, Map.class)
+
+        then: "pages are ordered newest first and do not overlap"
+        firstPage.items*.description == ["Order 5", "Order 4", "Order 3"]
+        firstPage.nextCursor != null
+        secondPage.items*.description == ["Order 2", "Order 1"]
+        secondPage.nextCursor == null
+    }
+
+    def "should return 400 for an invalid cursor"() {
+        when: "a page is requested with a malformed cursor"
+        def result = mockMvc.perform(get("/api/orders/page").param("cursor", "not-a-cursor"))
+
+        then: "response status is 400 Bad Request"
+        result.andExpect(status().isBadRequest())
+              .andExpect(jsonPath('$.validationErrors.cursor').exists())
+    }
+
+    def "should return 400 for a timeline that ends before it starts"() {
+        when: "a timeline is requested with from after to"
+        def result = mockMvc.perform(get("/api/orders/stats/timeline")
+                .param("from", "2025-06-02T00:00:00")
+                .param("to", "2025-06-01T00:00:00"))
+
+        then: "response status is 400 Bad Request"
+        result.andExpect(status().isBadRequest())
+              .andExpect(jsonPath('$.validationErrors.from').exists())
+    }
+
+    def "should stream search results as NDJSON"() {
+        given: "orders for two users exist in the database"
+        def order1 = new Order()
+        order1.setUserId(1L)
+        order1.setDescription("Order 1")
+        def order2 = new Order()
+        order2.setUserId(2L)
+        order2.setDescription("Order 2")
+        orderRepository.saveAll([order1, order2])
+
+        when: "search is requested with an NDJSON accept header"
+        def asyncResult = mockMvc.perform(post("/api/orders/search")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content('{"userId": 1}'))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+
+        then: "each matching order is written as one JSON line"
+        def lines = result.response.contentAsString.readLines()
+        lines.size() == 1
+        objectMapper.readValue(lines[0], Map.class).description == "Order 1"
+    }
+
+    def "should push order events to feed subscribers"() {
+        given: "a client subscribed to the order feed"
+        def result = mockMvc.perform(get("/api/orders/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+
+        when: "a status change is published to the feed"
+        orderFeed.publish(OrderFeed.ORDER_STATUS_CHANGED,
+                new OrderStatusChangedEvent(7L, OrderStatus.NEW, OrderStatus.PROCESSING, LocalDateTime.now()))
+
+        then: "the subscriber receives it as a named server-sent event"
+        new PollingConditions(timeout: 5).eventually {
+            def body = result.response.contentAsString
+            assert body.contains("event:status-changed")
+            assert body.contains('"newStatus":"PROCESSING"')
+        }
+        result.response.contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)
+    }
+
+    def "should export search results as CSV"() {
+        given: "orders for two users, one with a description that needs quoting"
+        def order1 = new Order()
+        order1.setUserId(11L)
+        order1.setDescription('Order "one", urgent')
+        def order2 = new Order()
+        order2.setUserId(12L)
+        order2.setDescription("Order 2")
+        orderRepository.saveAll([order1, order2])
+
+        when: "an export is requested for the first user"
+        def asyncResult = mockMvc.perform(post("/api/orders/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"userId": 11}'))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", 'attachment; filename="orders.csv"'))
+                .andReturn()
+
+        then: "a header and one escaped row are written"
+        def lines = result.response.contentAsString.readLines()
+        lines.size() == 2
+        lines[0] == "id,createdAt,status,userId,description"
+        lines[1].startsWith("${order1.id},")
+        lines[1].endsWith(',NEW,11,"Order ""one"", urgent"')
+    }
+
+    def "should export gzipped NDJSON"() {
+        given: "two orders in the database"
+        def orders = ["Gzipped 1", "Gzipped 2"].collect { description ->
+            def order = new Order()
+            order.setUserId(13L)
+            order.setDescription(description)
+            order
+        }
+        orderRepository.saveAll(orders)
+
+        when: "a gzipped NDJSON export is requested"
+        def asyncResult = mockMvc.perform(post("/api/orders/export")
+                .param("format", "ndjson")
+                .param("gzip", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"userId": 13}'))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+        def result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn()
+
+        then: "the decompressed body holds exactly one compact JSON object per line, in id order"
+        def lines = new GZIPInputStream(new ByteArrayInputStream(result.response.contentAsByteArray)).text.readLines()
+        def stored = orderRepository.findAllById(orders*.id).sort { it.id }
+        lines == stored.collect { order ->
+            '{"id":' + order.id + ',"createdAt":' + objectMapper.writeValueAsString(order.createdAt) +
+                    ',"status":"NEW","userId":13,"description":"' + order.description + '"}'
+        }
+    }
+
+    def "should reject an unknown export format"() {
+        expect: "a validation error"
+        mockMvc.perform(post("/api/orders/export")
+                .param("format", "xml")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{}'))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath('$.validationErrors.format').exists())
+    }
+
+    def "should shed a saturated endpoint class with 503 while point reads are still served"() {
+        given: "an order and an export holding the only export permit"
+        def order = new Order()
+        order.setUserId(21L)
+        order.setDescription("Limited")
+        def savedOrder = orderRepository.save(order)
+        def rejectedBefore = exportLimit()?.rejected ?: 0
+        def running = mockMvc.perform(post("/api/orders/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"userId": 21}'))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+
+        when: "a second export arrives"
+        def shed = mockMvc.perform(post("/api/orders/export")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content('{"userId": 21}'))
+
+        then: "it is shed with 503 and told when to retry"
+        shed.andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"))
+            .andExpect(jsonPath('$.status').value(503))
+
+        and: "the limits endpoint counts the rejection against the export class"
+        def limit = exportLimit()
+        limit.limit == 1
+        limit.inFlight == 1
+        limit.rejected == rejectedBefore + 1
+
+        and: "a point read is served while the export class is saturated"
+        mockMvc.perform(get("/api/orders/{id}", savedOrder.id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath('$.id').value(savedOrder.id))
+
+        cleanup: "the running export finishes and returns its permit"
+        mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk())
+    }
+
+    def "should create an order once per Idempotency-Key"() {
+        given: "an order request with an idempotency key"
+        def requestJson = objectMapper.writeValueAsString(new OrderDto(null, null, null, 21L, "Retried Order"))
+        def create = {
+            mockMvc.perform(post("/api/orders")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(requestJson))
+        }
+
+        when: "the request is sent and then retried"
+        def first = create().andExpect(status().isOk()).andReturn().response
+        def retry = create().andExpect(status().isOk()).andReturn().response
+
+        then: "the retry replays the original order and nothing is inserted twice"
+        first.getHeader("Idempotent-Replayed") == null
+        retry.getHeader("Idempotent-Replayed") == "true"
+        objectMapper.readValue(retry.contentAsString, Map.class).id == objectMapper.readValue(first.contentAsString, Map.class).id
+        orderRepository.findByUserIdOrderByCreatedAtDesc(21L).size() == 1
+
+        when: "the key is reused for a different order"
+        def reused = mockMvc.perform(post("/api/orders")
+                .header("Idempotency-Key", "retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new OrderDto(null, null, null, 21L, "Another Order"))))
+
+        then: "it is rejected"
+        reused.andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath('$.status').value(422))
+    }
+
+    def "should replay a retried batch whatever its format"() {
+        given: "a batch sent once as JSON with an idempotency key"
+        def requests = (1..3).collect { new OrderDto(null, null, null, 31L, "Batch retry ${it}") }
+        def first = mockMvc.perform(post("/api/orders/batch")
+                .header("Idempotency-Key", "batch-retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andReturn().response
+
+        when: "it is retried as NDJSON with the same key"
+        def retry = mockMvc.perform(post("/api/orders/batch")
+                .header("Idempotency-Key", "batch-retry-1")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(requests.collect { objectMapper.writeValueAsString(it) }.join("\n")))
+                .andExpect(status().isOk())
+                .andReturn().response
+
+        then: "the original orders come back and no order is inserted twice"
+        retry.getHeader("Idempotent-Replayed") == "true"
+        retry.contentAsString == first.contentAsString
+        orderRepository.findByUserIdOrderByCreatedAtDesc(31L).size() == 3
+    }
+
+    def "should create orders in a batch"() {
+        given: "an array of order requests"
+        def requestJson = objectMapper.writeValueAsString((1..120).collect { new OrderDto(null, null, null, it as Long, "Batch ${it}") })
+
+        when: "POST request is made to the batch endpoint"
+        def result = mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+
+        then: "all orders are created with ids"
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath('$.length()').value(120))
+              .andExpect(jsonPath('$[0].id').exists())
+              .andExpect(jsonPath('$[0].status').value("NEW"))
+        orderRepository.count() == 120
+    }
+
+    def "should create orders from an NDJSON stream"() {
+        given: "newline-delimited order requests"
+        def body = '{"userId": 1, "description": "First"}\n{"userId": 2, "description": "Second"}\n'
+
+        when: "POST request is made to the batch endpoint"
+        def result = mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+
+        then: "both orders are created"
+        result.andExpect(status().isOk())
+              .andExpect(jsonPath('$.length()').value(2))
+        orderRepository.count() == 2
+    }
+
+    def "should reject a batch with per-item validation errors"() {
+        given: "a batch with one invalid order"
+        def requestJson = objectMapper.writeValueAsString([
+                new OrderDto(null, null, null, 1L, "Valid"),
+                new OrderDto(null, null, null, null, "")
+        ])
+
+        when: "POST request is made to the batch endpoint"
+        def result = mockMvc.perform(post("/api/orders/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+
+        then: "response is 400 with errors keyed by item index"
+        result.andExpect(status().isBadRequest())
+              .andExpect(jsonPath('$.validationErrors["[1].userId"]').exists())
+              .andExpect(jsonPath('$.validationErrors["[1].description"]').exists())
+
+        and: "nothing is inserted"
+        orderRepository.count() == 0
+    }
+
+    private Map exportLimit() {
+        def limits = objectMapper.readValue(mockMvc.perform(get("/api/orders/limits"))
+                .andExpect(status().isOk())
+                .andReturn().response.contentAsString, Map.class)
+        limits.export as Map
+    }
 }
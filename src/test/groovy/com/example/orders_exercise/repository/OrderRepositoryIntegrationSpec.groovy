@@ -1,5 +1,7 @@
 package com.example.orders_exercise.repository
 
+import com.example.orders_exercise.dto.OrderCursor
+import com.example.orders_exercise.dto.OrderDto
 import com.example.orders_exercise.entity.Order
 import com.example.orders_exercise.entity.OrderStatus
 import org.springframework.beans.factory.annotation.Autowired
@@ -16,6 +18,9 @@ class OrderRepositoryIntegrationSpec extends Specification {
     @Autowired
     private OrderRepository orderRepository
 
+    @Autowired
+    private OrderDtoRepository orderDtoRepository
+
     def setup() {
         if (orderRepository != null) {
             orderRepository.deleteAll()
@@ -113,4 +118,63 @@ class OrderRepositoryIntegrationSpec extends Specification {
         updatedOrder.status == OrderStatus.PROCESSING
     }
 
+    def "should match description substrings case-insensitively and treat wildcards literally"() {
+        given: "orders whose descriptions contain LIKE wildcard characters"
+        ["Shipped 100% done", "Shipped 1000 done", "under_score item", "underXscore item"].each {
+            def order = new Order()
+            order.setUserId(1L)
+            order.setDescription(it)
+            order.setStatus(OrderStatus.NEW)
+            order.setCreatedAt(LocalDateTime.now())
+            orderRepository.save(order)
+        }
+
+        expect: "specification search escapes the term"
+        orderRepository.findAll(OrderSpecification.filterBy(null, null, null, term, null, null))*.description.sort() == expected
+
+        and: "the derived repository query agrees"
+        orderRepository.findByDescriptionContainingIgnoreCase(term)*.description.sort() == expected
+
+        where:
+        term      || expected
+        "0%"      || ["Shipped 100% done"]
+        "R_S"     || ["under_score item"]
+        "SHIPPED" || ["Shipped 1000 done", "Shipped 100% done"].sort()
+    }
+
+    def "should project specification searches into DTOs and page them by keyset"() {
+        given: "orders of two users, three of them created at the same instant"
+        def createdAt = LocalDateTime.now().withNano(0)
+        def orders = orderRepository.saveAll([
+                [1L, createdAt.minusMinutes(1)],
+                [1L, createdAt],
+                [1L, createdAt],
+                [1L, createdAt],
+                [2L, createdAt]
+        ].collect { userId, time ->
+            def order = new Order()
+            order.setUserId(userId)
+            order.setDescription("Projected order")
+            order.setStatus(OrderStatus.NEW)
+            order.setCreatedAt(time)
+            order
+        })
+        def spec = OrderSpecification.<Order>filterBy(null, null, 1L, null, null, null)
+
+        when: "the user's orders are read"
+        def all = orderDtoRepository.findAll(Order, spec)
+        def firstPage = orderDtoRepository.findWindow(Order, spec, null, 2)
+        def last = firstPage.content.last()
+        def secondPage = orderDtoRepository.findWindow(Order, spec, new OrderCursor(last.createdAt(), last.id()), 2)
+
+        then: "rows come back as DTOs without touching the other user"
+        all.size() == 4
+        all.every { it instanceof OrderDto && it.userId() == 1L }
+
+        and: "pages are newest first, break ties by id and do not overlap"
+        firstPage.content*.id() == [orders[3].id, orders[2].id]
+        firstPage.hasNext()
+        secondPage.content*.id() == [orders[1].id, orders[0].id]
+        !secondPage.hasNext()
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.orders_exercise.service
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class AdaptiveConcurrencyLimiterSpec extends Specification {
+
+    def "should reject requests beyond the current limit"() {
+        given: "a limiter allowing two concurrent requests"
+        def limiter = new AdaptiveConcurrencyLimiter(2, 1, 10)
+
+        expect: "the third concurrent request is shed and counted"
+        limiter.tryAcquire()
+        limiter.tryAcquire()
+        !limiter.tryAcquire()
+        limiter.rejected == 1
+
+        when: "one request completes"
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(5), false)
+
+        then: "a new request is admitted"
+        limiter.tryAcquire()
+    }
+
+    def "should shrink the limit when latency rises above the baseline"() {
+        given: "a limiter that has learned a 5 ms baseline"
+        def limiter = new AdaptiveConcurrencyLimiter(20, 1, 50)
+        20.times { sample(limiter, 20, 5) }
+        def before = limiter.limit
+
+        when: "requests start taking ten times longer"
+        20.times { sample(limiter, limiter.limit, 50) }
+
+        then: "the limit drops towards the minimum"
+        limiter.limit < before / 2
+    }
+
+    def "should grow the limit while saturated at steady latency"() {
+        given: "a limiter with room to grow"
+        def limiter = new AdaptiveConcurrencyLimiter(4, 1, 50)
+
+        when: "it keeps running at its limit with flat latency"
+        50.times { sample(limiter, limiter.limit, 5) }
+
+        then: "the limit rises but stays within its bounds"
+        limiter.limit > 4
+        limiter.limit <= 50
+    }
+
+    def "should not grow the limit while mostly idle"() {
+        given: "a limiter"
+        def limiter = new AdaptiveConcurrencyLimiter(10, 1, 50)
+
+        when: "only one request is in flight at a time"
+        50.times { sample(limiter, 1, 5) }
+
+        then: "the limit does not increase"
+        limiter.limit <= 10
+    }
+
+    private static void sample(AdaptiveConcurrencyLimiter limiter, int concurrency, long latencyMs) {
+        def acquired = (1..concurrency).count { limiter.tryAcquire() }
+        acquired.times { limiter.release(TimeUnit.MILLISECONDS.toNanos(latencyMs), false) }
+    }
+}
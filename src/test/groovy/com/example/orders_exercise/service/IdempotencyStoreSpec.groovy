@@ -0,0 +1,132 @@
+package com.example.orders_exercise.service
+
+import com.example.orders_exercise.exception.IdempotencyKeyReusedException
+import com.example.orders_exercise.exception.ValidationException
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class IdempotencyStoreSpec extends Specification {
+
+    private IdempotencyStore store = new IdempotencyStore(100, 60_000, new SimpleMeterRegistry())
+
+    def "should run the action once and replay its response for the same key"() {
+        given: "an action that counts its runs"
+        def runs = new AtomicInteger()
+
+        when: "the same request is sent twice with one key"
+        def first = store.execute("create", "key-1", "request", { "order-" + runs.incrementAndGet() })
+        def second = store.execute("create", "key-1", "request", { "order-" + runs.incrementAndGet() })
+
+        then: "the second gets the first response without running the action"
+        runs.get() == 1
+        !first.replayed()
+        second.replayed()
+        second.response() == "order-1"
+    }
+
+    def "should run every request without a key"() {
+        given: "an action that counts its runs"
+        def runs = new AtomicInteger()
+
+        when: "two requests are sent without a key"
+        2.times { store.execute("create", null, "request", { runs.incrementAndGet() }) }
+
+        then: "both run"
+        runs.get() == 2
+    }
+
+    def "should keep scopes apart and reject a key reused for another request"() {
+        given: "a key used for one request"
+        store.execute("create", "key-2", "request", { "order" })
+
+        expect: "the same key in another scope is a new request"
+        !store.execute("batch", "key-2", "other request", { ["order"] }).replayed()
+
+        when: "the key is sent with a different request in the first scope"
+        store.execute("create", "key-2", "other request", { "other order" })
+
+        then: "it is rejected"
+        thrown(IdempotencyKeyReusedException)
+    }
+
+    def "should let concurrent duplicates wait for the first request"() {
+        given: "a slow action and eight duplicates sent at once"
+        def runs = new AtomicInteger()
+        def start = new CountDownLatch(1)
+        def pool = Executors.newFixedThreadPool(8)
+
+        when: "they all race on one key"
+        def futures = (1..8).collect {
+            pool.submit({
+                start.await()
+                store.execute("create", "key-3", "request", {
+                    Thread.sleep(100)
+                    "order-" + runs.incrementAndGet()
+                })
+            } as Callable)
+        }
+        start.countDown()
+        def executions = futures.collect { it.get(10, TimeUnit.SECONDS) }
+        pool.shutdown()
+
+        then: "the action ran once and every caller got its response"
+        runs.get() == 1
+        executions*.response().toSet() == ["order-1"] as Set
+        executions.count { !it.replayed() } == 1
+    }
+
+    def "should forget failed requests so they can be retried"() {
+        when: "the first attempt fails"
+        store.execute("create", "key-4", "request", { throw new IllegalStateException("database down") })
+
+        then: "the failure reaches the caller"
+        thrown(IllegalStateException)
+
+        when: "it is retried with the same key"
+        def retry = store.execute("create", "key-4", "request", { "order" })
+
+        then: "the action runs again"
+        !retry.replayed()
+        retry.response() == "order"
+    }
+
+    @Timeout(10)
+    def "should release the key when the action fails with a checked exception or an error"() {
+        when: "the first attempt fails with something other than a runtime exception"
+        store.execute("create", key, "request", { throw failure })
+
+        then: "the failure reaches the caller"
+        def thrownFailure = thrown(Throwable)
+        thrownFailure.is(failure)
+
+        when: "it is retried with the same key"
+        def retry = store.execute("create", key, "request", { "order" })
+
+        then: "the retry runs instead of waiting forever"
+        !retry.replayed()
+        retry.response() == "order"
+
+        where:
+        key     | failure
+        "key-5" | new IOException("disk full")
+        "key-6" | new StackOverflowError()
+    }
+
+    def "should reject keys that are blank or too long"() {
+        when: "a blank key is sent"
+        store.execute("create", key, "request", { "order" })
+
+        then: "it is a validation error"
+        thrown(ValidationException)
+
+        where:
+        key << [" ", "k" * (IdempotencyStore.MAX_KEY_LENGTH + 1)]
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.orders_exercise.service
 
+import com.example.orders_exercise.dto.OrderCursor
 import com.example.orders_exercise.dto.kafka.OrderEvent
 import com.example.orders_exercise.entity.Order
 import com.example.orders_exercise.entity.OrderStatus
+import com.example.orders_exercise.repository.ArchivedOrderRepository
 import com.example.orders_exercise.repository.OrderRepository
+import io.micrometer.core.instrument.MeterRegistry
 import org.apache.kafka.clients.consumer.ConsumerConfig
 import org.apache.kafka.clients.consumer.KafkaConsumer
 import org.apache.kafka.common.serialization.StringDeserializer
@@ -19,8 +22,10 @@ import org.testcontainers.spock.Testcontainers
 import org.testcontainers.utility.DockerImageName
 import spock.lang.Shared
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 import java.time.Duration
+import java.time.LocalDateTime
 
 @SpringBootTest
 @ContextConfiguration
@@ -37,6 +42,15 @@ class OrderServiceIntegrationSpec extends Specification {
     @Autowired
     private OrderRepository orderRepository
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository
+
+    @Autowired
+    private OrderArchiver orderArchiver
+
+    @Autowired
+    private MeterRegistry meterRegistry
+
     @Value('${kafka.topic.order-created:order.created}')
     private String orderCreatedTopic
 
@@ -70,6 +84,7 @@ class OrderServiceIntegrationSpec extends Specification {
 
     def cleanup() {
         orderRepository.deleteAll()
+        archivedOrderRepository.deleteAll()
         if (consumer != null) {
             consumer.close()
         }
@@ -173,19 +188,138 @@ class OrderServiceIntegrationSpec extends Specification {
         !result.isPresent()
     }
 
-    def "should delete an order"() {
-        given: "an order exists in the database"
+    def "should delete an order and take it out of the live Kafka view"() {
+        given: "an order that has reached the live view"
         def order = new Order()
         order.setUserId(1L)
         order.setDescription("Test Order")
-        def savedOrder = orderRepository.save(order)
+        def savedOrder = orderService.saveOrder(order)
+        new PollingConditions(timeout: 15).eventually {
+            assert orderService.getOrderFromQueueById(savedOrder.id).isPresent()
+        }
 
         when: "deleting the order"
         orderService.deleteOrder(savedOrder.id)
 
         then: "order is removed from the database"
         !orderRepository.existsById(savedOrder.id)
+
+        and: "its deleted event removes it from the view"
+        new PollingConditions(timeout: 15).eventually {
+            assert orderService.getOrderFromQueueById(savedOrder.id).isEmpty()
+        }
+    }
+
+    def "should serve the latest created order from the live Kafka view"() {
+        given: "a new order"
+        def order = new Order()
+        order.setUserId(7L)
+        order.setDescription("Live View Order")
+
+        when: "order is saved"
+        def savedOrder = orderService.saveOrder(order)
+
+        then: "the view eventually exposes it as the latest event and by id"
+        new PollingConditions(timeout: 15).eventually {
+            assert orderService.getOrderFromQueue().map { it.id }.orElse(null) == savedOrder.id
+            assert orderService.getOrderFromQueueById(savedOrder.id).isPresent()
+        }
+    }
+
+    def "should serve repeated lookups from the cache and invalidate on status update"() {
+        given: "an order that has been read once"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Cached Order")
+        def savedOrder = orderService.saveOrder(order)
+        orderService.getOrderById(savedOrder.id)
+        def hitsBefore = orderService.getCacheStats().orders.hitCount()
+
+        when: "it is read again"
+        def cached = orderService.getOrderById(savedOrder.id)
+
+        then: "the read is a cache hit"
+        cached.get().id == savedOrder.id
+        orderService.getCacheStats().orders.hitCount() == hitsBefore + 1
+
+        when: "its status is updated"
+        orderService.updateOrderStatus(savedOrder.id, OrderStatus.PROCESSING)
+
+        then: "the next read sees the new status"
+        orderService.getOrderById(savedOrder.id).get().status == OrderStatus.PROCESSING
     }
 
+    def "should negatively cache missing ids until the order is created"() {
+        when: "a missing id is looked up twice"
+        orderService.getOrderById(424242L)
+        def missesBefore = orderService.getCacheStats().missingOrders.hitCount()
+        def result = orderService.getOrderById(424242L)
 
+        then: "the second lookup is answered by the negative cache"
+        !result.isPresent()
+        orderService.getCacheStats().missingOrders.hitCount() == missesBefore + 1
+    }
+
+    def "should time searches by filter shape and service calls by method"() {
+        when: "a search filtered by status and user is run"
+        orderService.searchOrders(null, OrderStatus.NEW, 5L, null, null, null)
+
+        then: "the search timer is tagged with the filter shape"
+        meterRegistry.find("orders.search")
+                .tag("mode", "list")
+                .tag("filter", "status+userId")
+                .timer().count() == 1
+
+        and: "the service method timer recorded the call"
+        meterRegistry.find("orders.service")
+                .tag("method", "searchOrders")
+                .timer().count() >= 1
+    }
+
+    def "should archive old finished orders in batches and still serve them"() {
+        given: "a user with old finished orders, an old open order and a recent finished order"
+        def now = LocalDateTime.now()
+        def orders = [
+                [now.minusDays(90), OrderStatus.COMPLETED],
+                [now.minusDays(80), OrderStatus.CANCELLED],
+                [now.minusDays(70), OrderStatus.PROCESSING],
+                [now.minusDays(1), OrderStatus.COMPLETED]
+        ].collect { createdAt, status ->
+            def order = new Order()
+            order.setUserId(77L)
+            order.setDescription("Tiered " + status)
+            order.setCreatedAt(createdAt)
+            order.setStatus(status)
+            order
+        }
+        orderRepository.saveAll(orders)
+
+        when: "the archiver moves orders older than the hot window"
+        def moved = orderArchiver.archiveOlderThan(now.minusDays(30))
+
+        then: "only the old finished orders leave the hot table"
+        moved == 2
+        orderRepository.findByUserIdOrderByCreatedAtDesc(77L)*.status == [OrderStatus.COMPLETED, OrderStatus.PROCESSING]
+        archivedOrderRepository.count() == 2
+
+        and: "lookups and searches still see every order, newest first when paged"
+        orderService.getOrderById(orders[0].id).get().status == OrderStatus.COMPLETED
+        orderService.searchOrders(null, null, 77L, null, null, null).size() == 4
+        orderService.searchOrders(null, OrderStatus.PROCESSING, 77L, null, null, null).size() == 1
+        def firstPage = orderService.searchOrders(null, null, 77L, null, null, null, null, 3)
+        firstPage.content*.id == [orders[3].id, orders[2].id, orders[1].id]
+        firstPage.hasNext()
+        def userPage = orderService.getOrdersByUser(77L, null, 3)
+        userPage.content*.id == [orders[3].id, orders[2].id, orders[1].id]
+        userPage.hasNext()
+        orderService.getOrdersByUser(77L, OrderCursor.of(userPage.content[2]), 3).content*.id == [orders[0].id]
+        orderService.getAllOrders()*.id == [orders[3].id, orders[2].id, orders[1].id, orders[0].id]
+
+        when: "archived orders past retention are purged"
+        def purged = orderArchiver.purgeOlderThan(now.minusDays(85))
+
+        then: "only those are removed"
+        purged == 1
+        archivedOrderRepository.findAll()*.id == [orders[1].id]
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.orders_exercise.service
+
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent
+import com.example.orders_exercise.dto.kafka.OrderEvent
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent
+import com.example.orders_exercise.entity.OrderStatus
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+
+class OrderStatisticsSpec extends Specification {
+
+    def statistics = new OrderStatistics()
+
+    def "should count orders per status, user and time bucket"() {
+        when: "three orders are created"
+        statistics.recordCreated(new OrderEvent(1L, LocalDateTime.of(2025, 6, 1, 10, 15, 5), OrderStatus.NEW, 1L, "a"))
+        statistics.recordCreated(new OrderEvent(2L, LocalDateTime.of(2025, 6, 1, 10, 15, 40), OrderStatus.NEW, 1L, "b"))
+        statistics.recordCreated(new OrderEvent(3L, LocalDateTime.of(2025, 6, 1, 11, 0), OrderStatus.NEW, 2L, "c"))
+
+        then: "each aggregate reflects them"
+        statistics.getStats().total() == 3
+        statistics.getStats().byStatus()[OrderStatus.NEW] == 3
+        statistics.getUserOrderCount(1L) == 2
+        statistics.getUserOrderCount(3L) == 0
+        statistics.getTimeline(OrderStatistics.Bucket.MINUTE, null, null)*.count == [2L, 1L]
+        statistics.getTimeline(OrderStatistics.Bucket.HOUR, null, null)*.start ==
+                [LocalDateTime.of(2025, 6, 1, 10, 0), LocalDateTime.of(2025, 6, 1, 11, 0)]
+        statistics.getTimeline(OrderStatistics.Bucket.DAY, null, null)*.count == [3L]
+        statistics.getTimeline(OrderStatistics.Bucket.HOUR, LocalDateTime.of(2025, 6, 1, 10, 30), null)*.count == [2L, 1L]
+        statistics.getTimeline(OrderStatistics.Bucket.HOUR, null, LocalDateTime.of(2025, 6, 1, 11, 0))*.count == [2L]
+    }
+
+    def "should move counts between statuses regardless of event order"() {
+        when: "a status change is replayed before the order it refers to"
+        statistics.recordStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.NEW, OrderStatus.PROCESSING, LocalDateTime.now()))
+        statistics.recordCreated(new OrderEvent(1L, LocalDateTime.now(), OrderStatus.NEW, 1L, "a"))
+
+        then: "the totals match applying them in order"
+        statistics.getStats().byStatus() == [
+                (OrderStatus.NEW)       : 0L,
+                (OrderStatus.PROCESSING): 1L,
+                (OrderStatus.COMPLETED) : 0L,
+                (OrderStatus.CANCELLED) : 0L
+        ]
+        statistics.getStats().total() == 1
+    }
+
+    def "should take deleted orders out of every aggregate regardless of event order"() {
+        given: "two orders of one user"
+        def createdAt = LocalDateTime.of(2025, 6, 1, 10, 15)
+        statistics.recordCreated(new OrderEvent(1L, createdAt, OrderStatus.NEW, 1L, "a"))
+
+        when: "the second order's deletion is replayed before its creation and status change"
+        statistics.recordDeleted(new OrderDeletedEvent(2L, 1L, OrderStatus.PROCESSING, createdAt, LocalDateTime.now()))
+        statistics.recordCreated(new OrderEvent(2L, createdAt, OrderStatus.NEW, 1L, "b"))
+        statistics.recordStatusChanged(new OrderStatusChangedEvent(2L, OrderStatus.NEW, OrderStatus.PROCESSING, LocalDateTime.now()))
+
+        then: "only the remaining order is counted"
+        statistics.getStats().total() == 1
+        statistics.getStats().byStatus()[OrderStatus.NEW] == 1L
+        statistics.getStats().byStatus()[OrderStatus.PROCESSING] == 0L
+        statistics.getUserOrderCount(1L) == 1
+        statistics.getTimeline(OrderStatistics.Bucket.MINUTE, null, null)*.count == [1L]
+    }
+
+    def "should not report negative counts for status changes of orders no longer retained"() {
+        when: "only a status change is replayed, its created event having expired"
+        statistics.recordStatusChanged(new OrderStatusChangedEvent(1L, OrderStatus.NEW, OrderStatus.COMPLETED, LocalDateTime.now()))
+
+        then: "the old status is clamped at zero"
+        statistics.getStats().byStatus()[OrderStatus.NEW] == 0L
+        statistics.getStats().byStatus()[OrderStatus.COMPLETED] == 1L
+        statistics.getStats().total() == 1
+    }
+}
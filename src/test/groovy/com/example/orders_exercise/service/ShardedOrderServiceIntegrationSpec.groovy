@@ -0,0 +1,110 @@
+package com.example.orders_exercise.service
+
+import com.example.orders_exercise.dto.OrderDto
+import com.example.orders_exercise.entity.Order
+import com.example.orders_exercise.entity.OrderStatus
+import com.example.orders_exercise.repository.ArchivedOrderRepository
+import com.example.orders_exercise.repository.OrderRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import spock.lang.Specification
+
+@SpringBootTest(properties = [
+        "orders.shards.additional[0].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "orders.shards.additional[0].username=sa",
+        "orders.shards.additional[0].password=password",
+        "orders.shards.additional[1].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "orders.shards.additional[1].username=sa",
+        "orders.shards.additional[1].password=password",
+        "orders.outbox.relay.enabled=false",
+        "orders.archive.enabled=false"
+])
+class ShardedOrderServiceIntegrationSpec extends Specification {
+
+    private static final Comparator<OrderDto> NEWEST_FIRST =
+            Comparator.comparing { OrderDto order -> order.createdAt() }
+                    .thenComparing { OrderDto order -> order.id() }
+                    .reversed()
+
+    @Autowired
+    private OrderService orderService
+
+    @Autowired
+    private ShardRouter shardRouter
+
+    @Autowired
+    private OrderRepository orderRepository
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository
+
+    @Autowired
+    private OrderCache orderCache
+
+    def cleanup() {
+        shardRouter.forEachShard { shard ->
+            orderRepository.deleteAll()
+            archivedOrderRepository.deleteAll()
+        }
+        orderCache.invalidateAll()
+    }
+
+    def "should place each user's orders on the user's shard with ids unique across shards"() {
+        when: "two orders are created for each of six users"
+        def saved = (1L..6L).collectMany { userId -> [saveOrder(userId), saveOrder(userId)] }
+
+        then: "every shard holds the orders of its users"
+        shardRouter.shardCount() == 3
+        shardRouter.shards().every { shard -> shardRouter.onShard(shard) { orderRepository.count() } == 4L }
+        saved.every { order ->
+            shardRouter.onShard(shardRouter.shardFor(order.userId)) { orderRepository.existsById(order.id) }
+        }
+
+        and: "ids never collide, because each shard issues ids from its own block"
+        saved*.id.toSet().size() == saved.size()
+        saved.every { order -> order.id.intdiv(1L << 44) == shardRouter.shardFor(order.userId) }
+
+        and: "any order can be found by id"
+        saved.every { order -> orderService.getOrderById(order.id).map { it.userId() }.orElse(null) == order.userId }
+    }
+
+    def "should gather searches, pages and streams from every shard newest first"() {
+        given: "orders of users spread over all shards"
+        def saved = (1L..6L).collectMany { userId -> [saveOrder(userId), saveOrder(userId)] }
+
+        when: "orders of all users are searched, paged and streamed"
+        def listed = orderService.searchOrders(null, OrderStatus.NEW, null, null, null, null)
+        def firstPage = orderService.searchOrders(null, OrderStatus.NEW, null, null, null, null, null, 5)
+        def streamed = []
+        orderService.streamOrders(null, OrderStatus.NEW, null, null, null, null) { streamed << it }
+
+        then: "each sees every order in the same newest-first order"
+        listed*.id().toSet() == saved*.id.toSet()
+        listed == listed.toSorted(NEWEST_FIRST)
+        streamed == listed
+        firstPage.content == listed.take(5)
+        firstPage.hasNext()
+
+        and: "a user's search only needs the user's shard"
+        orderService.searchOrders(null, null, 4L, null, null, null)*.userId() == [4L, 4L]
+    }
+
+    def "should update the status of an order on any shard"() {
+        given: "an order on a shard other than the first"
+        def order = saveOrder(2L)
+
+        when: "its status is updated"
+        orderService.updateOrderStatus(order.id, OrderStatus.PROCESSING)
+
+        then: "the owning shard has the new status"
+        shardRouter.onShard(shardRouter.shardFor(2L)) { orderRepository.findById(order.id).get().status } == OrderStatus.PROCESSING
+        orderService.getOrderById(order.id).get().status() == OrderStatus.PROCESSING
+    }
+
+    private Order saveOrder(Long userId) {
+        def order = new Order()
+        order.setUserId(userId)
+        order.setDescription("Sharded order of user " + userId)
+        orderService.saveOrder(order)
+    }
+}
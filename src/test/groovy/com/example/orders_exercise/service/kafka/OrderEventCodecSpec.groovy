@@ -0,0 +1,76 @@
+package com.example.orders_exercise.service.kafka
+
+import com.example.orders_exercise.config.JacksonConfig
+import com.example.orders_exercise.dto.kafka.OrderDeletedEvent
+import com.example.orders_exercise.dto.kafka.OrderEvent
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent
+import com.example.orders_exercise.entity.OrderStatus
+import org.apache.kafka.common.errors.SerializationException
+import org.apache.kafka.common.header.internals.RecordHeaders
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+
+class OrderEventCodecSpec extends Specification {
+
+    def "should round-trip events through the binary format"() {
+        expect: "decoding an encoded event yields an equal event"
+        OrderEventCodec.decode(OrderEventCodec.encode(event)) == event
+
+        where:
+        event << [
+                new OrderEvent(123456789L, LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123456789), OrderStatus.PROCESSING, 42L, "Zamówienie ✓"),
+                new OrderEvent(null, null, null, null, null),
+                new OrderEvent(-1L, LocalDateTime.of(1969, 12, 31, 23, 59, 59), OrderStatus.NEW, Long.MAX_VALUE, ""),
+                new OrderStatusChangedEvent(7L, OrderStatus.NEW, OrderStatus.CANCELLED, LocalDateTime.of(2025, 1, 1, 0, 0)),
+                new OrderStatusChangedEvent(7L, null, OrderStatus.COMPLETED, null),
+                new OrderDeletedEvent(7L, 42L, OrderStatus.CANCELLED, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 8, 0, 0, 5000)),
+                new OrderDeletedEvent(7L, null, null, null, null)
+        ]
+    }
+
+    def "should be smaller than the JSON encoding"() {
+        given: "a typical order event"
+        def event = new OrderEvent(1234567L, LocalDateTime.of(2025, 6, 1, 12, 30, 15), OrderStatus.NEW, 42L, "Test Order")
+
+        expect: "the binary payload is a fraction of the JSON one"
+        OrderEventCodec.encode(event).length * 2 < new JacksonConfig().objectMapper().writeValueAsBytes(event).length
+    }
+
+    def "should tag binary records with the schema version header"() {
+        given: "record headers"
+        def headers = new RecordHeaders()
+
+        when: "an event is serialized with headers"
+        new BinaryOrderEventSerializer().serialize("order.created", headers, new OrderEvent(1L, null, OrderStatus.NEW, 1L, "x"))
+
+        then: "the schema version header is present"
+        OrderEventCodec.isBinary(headers)
+        headers.lastHeader(OrderEventCodec.SCHEMA_VERSION_HEADER).value() == [OrderEventCodec.SCHEMA_VERSION] as byte[]
+    }
+
+    def "should reject records of an unknown schema version"() {
+        given: "a binary record whose header names a newer schema version"
+        def headers = new RecordHeaders()
+        def encoded = new BinaryOrderEventSerializer().serialize("order.created", headers, new OrderEvent(1L, null, OrderStatus.NEW, 1L, "x"))
+        headers.remove(OrderEventCodec.SCHEMA_VERSION_HEADER)
+        headers.add(OrderEventCodec.SCHEMA_VERSION_HEADER, [(byte) (OrderEventCodec.SCHEMA_VERSION + 1)] as byte[])
+
+        when: "it is decoded"
+        OrderEventCodec.decode(headers, encoded, OrderEvent)
+
+        then: "a serialization exception is thrown"
+        thrown(SerializationException)
+    }
+
+    def "should reject truncated payloads"() {
+        given: "an encoded event missing its last byte"
+        def encoded = OrderEventCodec.encode(new OrderEvent(1L, null, OrderStatus.NEW, 1L, "description"))
+
+        when: "it is decoded"
+        OrderEventCodec.decode(Arrays.copyOf(encoded, encoded.length - 1))
+
+        then: "a serialization exception is thrown"
+        thrown(SerializationException)
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.orders_exercise.service.kafka
+
+import com.example.orders_exercise.entity.Order
+import com.example.orders_exercise.entity.OrderStatus
+import com.example.orders_exercise.repository.ArchivedOrderRepository
+import com.example.orders_exercise.repository.OrderRepository
+import com.example.orders_exercise.repository.OutboxEventRepository
+import com.example.orders_exercise.service.OrderService
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.testcontainers.containers.KafkaContainer
+import org.testcontainers.spock.Testcontainers
+import org.testcontainers.utility.DockerImageName
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+@SpringBootTest
+@ContextConfiguration
+@Testcontainers
+class OrderReplayIntegrationSpec extends Specification {
+
+    @Shared
+    static KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:latest"))
+            .withReuse(true)
+
+    @Autowired
+    private OrderService orderService
+
+    @Autowired
+    private OrderReplayService orderReplayService
+
+    @Autowired
+    private OrderRepository orderRepository
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository
+
+    @DynamicPropertySource
+    static void kafkaProperties(DynamicPropertyRegistry registry) {
+        kafkaContainer.start()
+        registry.add("spring.kafka.bootstrap-servers", kafkaContainer::getBootstrapServers)
+        registry.add("orders.replay.threads", () -> "2")
+        registry.add("orders.replay.batch-size", () -> "2")
+    }
+
+    def setup() {
+        orderRepository.deleteAll()
+        archivedOrderRepository.deleteAll()
+    }
+
+    def cleanup() {
+        orderRepository.deleteAll()
+        archivedOrderRepository.deleteAll()
+    }
+
+    def "should rebuild orders with their final status from the event topics"() {
+        given: "orders whose status changed after creation, all relayed to Kafka"
+        def finalStatuses = [OrderStatus.PROCESSING, OrderStatus.COMPLETED, OrderStatus.CANCELLED]
+        def saved = finalStatuses.withIndex().collect { status, i ->
+            def order = new Order()
+            order.setUserId(300L + i)
+            order.setDescription("Replayed " + i)
+            def savedOrder = orderService.saveOrder(order)
+            orderService.updateOrderStatus(savedOrder.id, OrderStatus.PROCESSING)
+            if (status != OrderStatus.PROCESSING) {
+                orderService.updateOrderStatus(savedOrder.id, status)
+            }
+            savedOrder
+        }
+        new PollingConditions(timeout: 20).eventually {
+            assert outboxEventRepository.count() == 0
+        }
+
+        and: "the database is lost"
+        orderRepository.deleteAll()
+
+        when: "the orders are replayed from the topics"
+        def result = orderReplayService.rebuild()
+
+        then: "every order is back with its last status and original data"
+        result.orders() >= saved.size()
+        result.records() >= saved.size() * 2
+        def rebuilt = orderRepository.findAllById(saved*.id).collectEntries { [it.id, it] }
+        saved.withIndex().every { order, i ->
+            rebuilt[order.id].status == finalStatuses[i] &&
+                    rebuilt[order.id].userId == order.userId &&
+                    rebuilt[order.id].description == order.description
+        }
+    }
+
+    def "should refuse to replay into a non-empty database"() {
+        given: "an existing order"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Existing")
+        orderRepository.save(order)
+
+        when: "a replay is started"
+        orderReplayService.rebuild()
+
+        then: "it is rejected"
+        thrown(IllegalStateException)
+    }
+}
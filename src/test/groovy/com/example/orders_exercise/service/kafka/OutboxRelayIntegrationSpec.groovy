@@ -0,0 +1,219 @@
+package com.example.orders_exercise.service.kafka
+
+import com.example.orders_exercise.dto.kafka.OrderStatusChangedEvent
+import com.example.orders_exercise.entity.Order
+import com.example.orders_exercise.entity.OrderStatus
+import com.example.orders_exercise.entity.OutboxEvent
+import com.example.orders_exercise.entity.OutboxRelayLease
+import com.example.orders_exercise.repository.OrderRepository
+import com.example.orders_exercise.repository.OutboxDeadLetterRepository
+import com.example.orders_exercise.repository.OutboxEventRepository
+import com.example.orders_exercise.repository.OutboxRelayLeaseRepository
+import com.example.orders_exercise.service.OrderService
+import org.apache.kafka.clients.consumer.ConsumerConfig
+import org.apache.kafka.clients.consumer.KafkaConsumer
+import org.apache.kafka.clients.producer.ProducerConfig
+import org.apache.kafka.common.serialization.StringDeserializer
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.kafka.core.ProducerFactory
+import org.springframework.kafka.support.serializer.JsonDeserializer
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.springframework.transaction.support.TransactionTemplate
+import org.testcontainers.containers.KafkaContainer
+import org.testcontainers.spock.Testcontainers
+import org.testcontainers.utility.DockerImageName
+import spock.lang.Shared
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.time.LocalDateTime
+
+@SpringBootTest
+@ContextConfiguration
+@Testcontainers
+class OutboxRelayIntegrationSpec extends Specification {
+
+    @Shared
+    static KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:latest"))
+            .withReuse(true)
+
+    @Autowired
+    private OrderService orderService
+
+    @Autowired
+    private OrderRepository orderRepository
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository
+
+    @Autowired
+    private OutboxDeadLetterRepository outboxDeadLetterRepository
+
+    @Autowired
+    private OutboxRelayLeaseRepository outboxRelayLeaseRepository
+
+    @Autowired
+    private TransactionTemplate transactionTemplate
+
+    @Autowired
+    private ProducerFactory<String, Object> producerFactory
+
+    @Value('${kafka.topic.order-status-changed:order.status.changed}')
+    private String orderStatusChangedTopic
+
+    private KafkaConsumer<String, OrderStatusChangedEvent> consumer
+
+    @DynamicPropertySource
+    static void kafkaProperties(DynamicPropertyRegistry registry) {
+        kafkaContainer.start()
+        registry.add("spring.kafka.bootstrap-servers", kafkaContainer::getBootstrapServers)
+        registry.add("orders.outbox.batch-size", () -> "7")
+    }
+
+    def setup() {
+        orderRepository.deleteAll()
+
+        Properties props = new Properties()
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers())
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "outbox-test-group-" + UUID.randomUUID())
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest")
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName())
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class.getName())
+
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.orders_exercise.dto.kafka")
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, OrderStatusChangedEvent.class.getName())
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false)
+
+        consumer = new KafkaConsumer<>(props)
+        consumer.subscribe([orderStatusChangedTopic])
+        consumer.poll(Duration.ofSeconds(1))
+    }
+
+    def cleanup() {
+        orderRepository.deleteAll()
+        outboxDeadLetterRepository.deleteAll()
+        if (consumer != null) {
+            consumer.close()
+        }
+    }
+
+    def "should not write outbox events when the order transaction rolls back"() {
+        given: "the outbox is drained"
+        new PollingConditions(timeout: 15).eventually {
+            assert outboxEventRepository.count() == 0
+        }
+
+        when: "an order is saved inside a transaction that rolls back"
+        transactionTemplate.executeWithoutResult { status ->
+            def order = new Order()
+            order.setUserId(1L)
+            order.setDescription("Rolled Back Order")
+            orderService.saveOrder(order)
+            status.setRollbackOnly()
+        }
+
+        then: "neither the order nor its event is persisted"
+        orderRepository.count() == 0
+        outboxEventRepository.count() == 0
+    }
+
+    def "should relay status changes across several batches in order"() {
+        given: "an order"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Outbox Order")
+        def savedOrder = orderService.saveOrder(order)
+
+        when: "its status is changed more times than fit in one relay batch"
+        def statuses = (1..10).collect { it % 2 == 0 ? OrderStatus.NEW : OrderStatus.PROCESSING }
+        statuses.each { orderService.updateOrderStatus(savedOrder.id, it) }
+
+        then: "all status events reach Kafka keyed by order id and in write order"
+        def received = []
+        new PollingConditions(timeout: 20).eventually {
+            consumer.poll(Duration.ofMillis(500)).each { received << it }
+            assert received.size() == statuses.size()
+        }
+        received.every { it.key() == savedOrder.id.toString() }
+        received*.value()*.newStatus == statuses
+
+        and: "the outbox is drained"
+        new PollingConditions(timeout: 10).eventually {
+            assert outboxEventRepository.count() == 0
+        }
+    }
+
+    def "should move an undecodable event to the dead-letter table and keep relaying"() {
+        given: "an order"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Dead Letter Order")
+        def savedOrder = orderService.saveOrder(order)
+
+        when: "an event of an unknown type lands in the outbox ahead of a status change"
+        def unknown = new OutboxEvent()
+        unknown.setTopic(orderStatusChangedTopic)
+        unknown.setMessageKey(savedOrder.id.toString())
+        unknown.setEventType("OrderMergedEvent")
+        unknown.setPayload("{}")
+        outboxEventRepository.save(unknown)
+        orderService.updateOrderStatus(savedOrder.id, OrderStatus.PROCESSING)
+
+        then: "the status change still reaches Kafka"
+        def received = []
+        new PollingConditions(timeout: 20).eventually {
+            consumer.poll(Duration.ofMillis(500)).each { received << it }
+            assert received*.value()*.newStatus == [OrderStatus.PROCESSING]
+        }
+
+        and: "the unknown event is parked in the dead-letter table and the outbox is drained"
+        new PollingConditions(timeout: 10).eventually {
+            assert outboxEventRepository.count() == 0
+        }
+        def deadLetters = outboxDeadLetterRepository.findAll()
+        deadLetters*.eventType == ["OrderMergedEvent"]
+        deadLetters*.messageKey == [savedOrder.id.toString()]
+        deadLetters.every { it.error.contains("OrderMergedEvent") }
+    }
+
+    def "should leave the outbox to the relay holding the lease"() {
+        given: "another instance's relay holds the lease"
+        outboxRelayLeaseRepository.save(new OutboxRelayLease("outbox-relay", "other-relay", LocalDateTime.now().plusMinutes(5)))
+
+        when: "an order is saved"
+        def order = new Order()
+        order.setUserId(1L)
+        order.setDescription("Leased Order")
+        def savedOrder = orderService.saveOrder(order)
+        Thread.sleep(1000)
+
+        then: "its event is not relayed by this instance"
+        outboxEventRepository.findAll()*.messageKey == [savedOrder.id.toString()]
+
+        when: "the other relay's lease expires"
+        outboxRelayLeaseRepository.save(new OutboxRelayLease("outbox-relay", "other-relay", LocalDateTime.now().minusSeconds(1)))
+
+        then: "this relay takes the lease over and drains the outbox"
+        new PollingConditions(timeout: 10).eventually {
+            assert outboxEventRepository.count() == 0
+        }
+
+        cleanup:
+        outboxRelayLeaseRepository.deleteAll()
+    }
+
+    def "should publish with an idempotent, compressed, batching producer"() {
+        expect: "the producer is configured for ordered, high-throughput delivery"
+        def config = producerFactory.configurationProperties
+        config[ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG] == true
+        config[ProducerConfig.ACKS_CONFIG] == "all"
+        config[ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION] <= 5
+        config[ProducerConfig.COMPRESSION_TYPE_CONFIG] == "lz4"
+        config[ProducerConfig.LINGER_MS_CONFIG] > 0
+    }
+}
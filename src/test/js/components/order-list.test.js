@@ -1,4 +1,12 @@
-import { OrderList } from '../../../../src/main/resources/static/js/components/order-list.js';
+import {
+  OrderList,
+  ROW_HEIGHT,
+  PAGE_SIZE,
+  OVERSCAN,
+  VIEWPORT_HEIGHT,
+  SEARCH_DEBOUNCE_MS
+} from '../../../../src/main/resources/static/js/components/order-list.js';
+import { apiService } from '../../../../src/main/resources/static/js/services/api-service.js';
 import { expect } from 'chai';
 import sinon from 'sinon';
 
@@ -194,4 +202,189 @@ describe('OrderList', () => {
       expect(loadOrdersSpy.calledOnce).to.be.true;
     });
   });
+
+  describe('live order events', () => {
+    beforeEach(() => {
+      element.orders = [
+        { id: 1, status: 'NEW', userId: 1, description: 'first' },
+        { id: 2, status: 'NEW', userId: 2, description: 'second' }
+      ];
+    });
+
+    it('should put created orders on top when no filters are active', () => {
+      element.handleOrderCreated({ id: 3, status: 'NEW', userId: 3, description: 'third' });
+
+      expect(element.orders.map(order => order.id)).to.deep.equal([3, 1, 2]);
+    });
+
+    it('should ignore created orders already in the list or while filtering', () => {
+      element.handleOrderCreated({ id: 2, status: 'NEW', userId: 2, description: 'second' });
+      element.searchFilters = { ...element.searchFilters, userId: '9' };
+      element.handleOrderCreated({ id: 4, status: 'NEW', userId: 4, description: 'fourth' });
+
+      expect(element.orders.map(order => order.id)).to.deep.equal([1, 2]);
+    });
+
+    it('should patch the status of the affected row only', () => {
+      const untouched = element.orders[0];
+
+      element.handleOrderStatusChanged({ orderId: 2, oldStatus: 'NEW', newStatus: 'PROCESSING' });
+
+      expect(element.orders[1].status).to.equal('PROCESSING');
+      expect(element.orders[0]).to.equal(untouched);
+    });
+
+    it('should drop rows that no longer match the status filter', () => {
+      element.searchFilters = { ...element.searchFilters, status: 'NEW' };
+
+      element.handleOrderStatusChanged({ orderId: 1, oldStatus: 'NEW', newStatus: 'COMPLETED' });
+
+      expect(element.orders.map(order => order.id)).to.deep.equal([2]);
+    });
+
+    it('should leave the list untouched for unknown orders', () => {
+      const orders = element.orders;
+
+      element.handleOrderStatusChanged({ orderId: 42, oldStatus: 'NEW', newStatus: 'PROCESSING' });
+
+      expect(element.orders).to.equal(orders);
+    });
+
+    it('should remove deleted orders', () => {
+      element.handleOrderDeleted({ orderId: 1, userId: 1, status: 'NEW' });
+
+      expect(element.orders.map(order => order.id)).to.deep.equal([2]);
+    });
+  });
+
+  describe('large lists', () => {
+    const visibleRows = Math.ceil(VIEWPORT_HEIGHT / ROW_HEIGHT);
+
+    const makeOrders = (count, firstId = 1) => Array.from({ length: count }, (_, i) => ({
+      id: firstId + i,
+      createdAt: '2024-01-01T00:00:00',
+      status: 'NEW',
+      userId: (firstId + i) % 100,
+      description: `order ${firstId + i}`
+    }));
+
+    beforeEach(() => {
+      element.loading = false;
+      element.orders = makeOrders(10000);
+      element.nextCursor = 'cursor-1';
+    });
+
+    it('should only render the rows around the viewport', () => {
+      expect(element.visibleRange()).to.deep.equal({ start: 0, end: visibleRows + 2 * OVERSCAN });
+
+      element.scrollTop = 5000 * ROW_HEIGHT;
+
+      const { start, end } = element.visibleRange();
+      expect(start).to.equal(5000 - OVERSCAN);
+      expect(end - start).to.equal(visibleRows + 2 * OVERSCAN);
+    });
+
+    it('should clamp the rendered rows at the end of the list', () => {
+      element.scrollTop = 10000 * ROW_HEIGHT;
+
+      expect(element.visibleRange().end).to.equal(10000);
+    });
+
+    it('should not fetch while scrolling through loaded rows', () => {
+      const getOrdersPage = sinon.stub(apiService, 'getOrdersPage');
+
+      element.handleScroll({ target: { scrollTop: 100 * ROW_HEIGHT } });
+
+      expect(getOrdersPage.called).to.be.false;
+    });
+
+    it('should fetch the next page near the end and append only new rows', async () => {
+      const getOrdersPage = sinon.stub(apiService, 'getOrdersPage').resolves({
+        items: makeOrders(PAGE_SIZE, 10000),
+        nextCursor: 'cursor-2'
+      });
+
+      element.handleScroll({ target: { scrollTop: (10000 - visibleRows) * ROW_HEIGHT } });
+      element.handleScroll({ target: { scrollTop: (10000 - visibleRows) * ROW_HEIGHT } });
+      await getOrdersPage.firstCall.returnValue;
+      await Promise.resolve();
+
+      expect(getOrdersPage.calledOnce).to.be.true;
+      expect(getOrdersPage.firstCall.args[0]).to.include({ cursor: 'cursor-1', size: PAGE_SIZE });
+      // Order 10000 was already loaded, so only the rest of the page is new
+      expect(element.orders).to.have.lengthOf(10000 + PAGE_SIZE - 1);
+      expect(element.nextCursor).to.equal('cursor-2');
+      expect(element.loadingMore).to.be.false;
+    });
+
+    it('should stop fetching once the last page is loaded', () => {
+      const getOrdersPage = sinon.stub(apiService, 'getOrdersPage');
+      element.nextCursor = null;
+
+      element.handleScroll({ target: { scrollTop: 10000 * ROW_HEIGHT } });
+
+      expect(getOrdersPage.called).to.be.false;
+    });
+
+    it('should send one search per burst of filter changes and cancel the one still running', async () => {
+      const clock = sinon.useFakeTimers();
+      let resolveFirst;
+      const searchOrdersPage = sinon.stub(apiService, 'searchOrdersPage');
+      searchOrdersPage.onFirstCall().returns(new Promise(resolve => { resolveFirst = resolve; }));
+      searchOrdersPage.onSecondCall().resolves({ items: makeOrders(2, 500), nextCursor: null });
+
+      ['t', 'te', 'tes'].forEach(value => element.handleFilterChange({ target: { name: 'description', value } }));
+      clock.tick(SEARCH_DEBOUNCE_MS);
+      expect(searchOrdersPage.calledOnce).to.be.true;
+      expect(searchOrdersPage.firstCall.args[0]).to.deep.equal({ description: 'tes' });
+      const firstSignal = searchOrdersPage.firstCall.args[1].signal;
+
+      element.handleFilterChange({ target: { name: 'description', value: 'test' } });
+      clock.tick(SEARCH_DEBOUNCE_MS);
+      clock.restore();
+      await searchOrdersPage.secondCall.returnValue;
+      await Promise.resolve();
+
+      expect(firstSignal.aborted).to.be.true;
+      expect(element.orders.map(order => order.id)).to.deep.equal([500, 501]);
+
+      // The cancelled search answering late must not overwrite the newer result
+      resolveFirst({ items: makeOrders(3, 900), nextCursor: 'stale' });
+      await Promise.resolve();
+      await Promise.resolve();
+
+      expect(element.orders.map(order => order.id)).to.deep.equal([500, 501]);
+      expect(element.nextCursor).to.be.null;
+    });
+
+    it('should apply a status change to its row without refetching', async () => {
+      const getOrdersPage = sinon.stub(apiService, 'getOrdersPage');
+      const searchOrdersPage = sinon.stub(apiService, 'searchOrdersPage');
+      sinon.stub(apiService, 'updateOrderStatus').resolves({ ...element.orders[4999], status: 'PROCESSING' });
+      const neighbour = element.orders[5000];
+
+      await element.handleStatusChange(5000, 'PROCESSING');
+
+      expect(element.orders[4999].status).to.equal('PROCESSING');
+      expect(element.orders[5000]).to.equal(neighbour);
+      expect(element.orders).to.have.lengthOf(10000);
+      expect(getOrdersPage.called || searchOrdersPage.called).to.be.false;
+    });
+
+    it('should remove a deleted row without refetching', async () => {
+      const getOrdersPage = sinon.stub(apiService, 'getOrdersPage');
+      sinon.stub(apiService, 'deleteOrder').resolves(null);
+      global.confirm = () => true;
+
+      try {
+        await element.handleDelete(1234);
+      } finally {
+        delete global.confirm;
+      }
+
+      expect(element.orders).to.have.lengthOf(9999);
+      expect(element.orders.some(order => order.id === 1234)).to.be.false;
+      expect(getOrdersPage.called).to.be.false;
+    });
+  });
 });
@@ -0,0 +1,75 @@
+import { ApiService, MAX_CACHED_RESPONSES } from '../../../../src/main/resources/static/js/services/api-service.js';
+import { expect } from 'chai';
+import sinon from 'sinon';
+
+const jsonResponse = (status, body, etag) => ({
+  ok: status >= 200 && status < 300,
+  status,
+  statusText: '',
+  headers: { get: name => (name === 'ETag' ? etag : null) },
+  json: () => Promise.resolve(body)
+});
+
+describe('ApiService', () => {
+  let service;
+  let fetchStub;
+
+  beforeEach(() => {
+    service = new ApiService();
+    fetchStub = sinon.stub(global, 'fetch');
+  });
+
+  afterEach(() => {
+    sinon.restore();
+  });
+
+  describe('conditional requests', () => {
+    it('should revalidate a GET with its ETag and reuse the body on 304', async () => {
+      const orders = [{ id: 1, version: 0 }];
+      fetchStub.onFirstCall().resolves(jsonResponse(200, orders, 'W/"1-1-0"'));
+      fetchStub.onSecondCall().resolves(jsonResponse(304, undefined, 'W/"1-1-0"'));
+
+      const first = await service.getOrders();
+      const second = await service.getOrders();
+
+      expect(fetchStub.firstCall.args[1].headers).to.not.have.property('If-None-Match');
+      expect(fetchStub.secondCall.args[1].headers['If-None-Match']).to.equal('W/"1-1-0"');
+      expect(second).to.equal(first);
+    });
+
+    it('should replace the cached body when the resource changed', async () => {
+      fetchStub.onFirstCall().resolves(jsonResponse(200, { id: 1, version: 0 }, 'W/"1-0"'));
+      fetchStub.onSecondCall().resolves(jsonResponse(200, { id: 1, version: 1 }, 'W/"1-1"'));
+      fetchStub.onThirdCall().resolves(jsonResponse(304, undefined, 'W/"1-1"'));
+
+      await service.getOrder(1);
+      await service.getOrder(1);
+      const third = await service.getOrder(1);
+
+      expect(fetchStub.thirdCall.args[1].headers['If-None-Match']).to.equal('W/"1-1"');
+      expect(third.version).to.equal(1);
+    });
+
+    it('should not send conditional headers for writes', async () => {
+      fetchStub.onFirstCall().resolves(jsonResponse(200, { id: 1 }, 'W/"1-0"'));
+      fetchStub.onSecondCall().resolves(jsonResponse(200, { id: 1, status: 'PROCESSING' }));
+
+      await service.getOrder(1);
+      await service.updateOrderStatus(1, 'PROCESSING');
+
+      expect(fetchStub.secondCall.args[1].headers).to.not.have.property('If-None-Match');
+    });
+
+    it('should only keep the most recently stored responses', async () => {
+      fetchStub.callsFake(url => Promise.resolve(jsonResponse(200, { url }, `W/"${url}"`)));
+
+      for (let id = 0; id <= MAX_CACHED_RESPONSES; id++) {
+        await service.getOrder(id);
+      }
+
+      expect(service.etagCache.size).to.equal(MAX_CACHED_RESPONSES);
+      expect(service.etagCache.has('/api/orders/0')).to.be.false;
+      expect(service.etagCache.has(`/api/orders/${MAX_CACHED_RESPONSES}`)).to.be.true;
+    });
+  });
+});